@@ -0,0 +1,100 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.exceptions.AuthenticationFailedException;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of UserService.authenticate under a credential stuffing mix: missRatio of the attempts use one of
+ * {@value #UNKNOWN_USERNAMES} unknown usernames, the others a known username with the right password.
+ * Runs with the unknown username cache and with it disabled by a zero expiry.
+ * BCrypt cost is lowered to 4 so that the known usernames do not hide the lookups behind hashing time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AuthenticateBenchmark {
+    private static final int USERS = 10_000;
+    private static final int UNKNOWN_USERNAMES = 2_000;
+    private static final int ATTEMPTS = 1 << 16;
+    private static final String PASSWORD = "password";
+
+    @Param({"0.5", "0.9"})
+    public double missRatio;
+
+    @Param({"true", "false"})
+    public boolean negativeCache;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Long orgId;
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(
+                "tasks.password.bcrypt-cost=4",
+                "tasks.cache.unknown-usernames.expire-after-write-seconds=" + (negativeCache ? 60 : 0),
+                "logging.level.com.backend.tasks=OFF");
+        userService = context.getBean(UserService.class);
+        Organization organization = new Organization();
+        organization.setName("Benchmark organization");
+        orgId = context.getBean(OrganizationService.class).create(organization).getId();
+        context.getBean(JdbcTemplate.class).update("insert into user (id, username, password, org_id) "
+                        + "select x + 1000000000, 'user-' || x, ?, ? from system_range(1, ?)",
+                new BCryptPasswordEncoder(4).encode(PASSWORD), orgId, USERS);
+
+        Random random = new Random(42);
+        usernames = new String[ATTEMPTS];
+        for (int i = 0; i < ATTEMPTS; i++) {
+            usernames[i] = random.nextDouble() < missRatio
+                    ? "unknown-" + random.nextInt(UNKNOWN_USERNAMES)
+                    : "user-" + (1 + random.nextInt(USERS));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Attempts {
+        int next;
+    }
+
+    @Benchmark
+    public Long authenticate(Attempts attempts) {
+        String username = usernames[attempts.next++ & (ATTEMPTS - 1)];
+        try {
+            return userService.authenticate(username, PASSWORD, orgId);
+        } catch (AuthenticationFailedException e) {
+            return null;
+        }
+    }
+}
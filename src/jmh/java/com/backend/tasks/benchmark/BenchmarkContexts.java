@@ -0,0 +1,34 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.Application;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+/**
+ * Starts the application on a random port, on the embedded H2 DataSource defined in {@link Application}
+ * unless the pooled profile is passed in.
+ * The web context stays on because the Swagger configuration needs it.
+ * Every call gets a fresh embedded database, so benchmark trials do not see each other's rows; the pooled
+ * profile's named database lives as long as the JVM, which JMH forks per trial.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * @param properties overrides in {@code key=value} form; they take precedence over application.yml
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        String[] args = Stream.concat(Stream.of("server.port=0", "logging.level.root=WARN"), Stream.of(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(Application.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(args);
+    }
+}
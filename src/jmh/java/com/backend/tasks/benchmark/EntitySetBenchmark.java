@@ -0,0 +1,76 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash-based collections of the users of one large organization. Every user has the same hash code, so a large
+ * collection is keyed by id: a HashSet of 100k users would put them all in one bucket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntitySetBenchmark {
+    @Param("100000")
+    private int users;
+
+    private List<User> organizationUsers;
+    private Map<Long, User> usersById;
+
+    @Setup
+    public void setUp() {
+        Organization organization = new Organization();
+        organization.setId(1L);
+        organization.setName("Organization A");
+        organizationUsers = new ArrayList<>(users);
+        for (long i = 0; i < users; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("user-" + i);
+            user.setPassword("password");
+            user.setOrganization(organization);
+            organizationUsers.add(user);
+        }
+        usersById = populateUserMap();
+    }
+
+    @Benchmark
+    public Map<Long, User> populateUserMap() {
+        Map<Long, User> map = new HashMap<>();
+        for (User user : organizationUsers) {
+            map.put(user.getId(), user);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int containsEveryUser() {
+        int found = 0;
+        for (User user : organizationUsers) {
+            if (usersById.containsKey(user.getId())) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
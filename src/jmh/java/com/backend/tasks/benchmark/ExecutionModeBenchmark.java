@@ -0,0 +1,90 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of GET /orgs/{orgId}/users/{userId} over HTTP in the blocking and in the async execution mode.
+ * {@value #CLIENTS} client threads share a Tomcat pool of {@value #TOMCAT_THREADS} threads and the Hikari pool
+ * of the pooled profile, so the request threads are saturated in both modes.
+ * Responses are read to the end, so keep-alive connections are reused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(ExecutionModeBenchmark.CLIENTS)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    static final int CLIENTS = 32;
+    private static final int TOMCAT_THREADS = 8;
+
+    @Param({"blocking", "async"})
+    public String executionMode;
+
+    private ConfigurableApplicationContext context;
+    private URL userUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContexts.start(
+                "spring.profiles.active=pooled",
+                "tasks.web.execution-mode=" + executionMode,
+                "server.tomcat.max-threads=" + TOMCAT_THREADS,
+                "logging.level.com.backend.tasks=OFF");
+        Organization organization = new Organization();
+        organization.setName("Benchmark organization");
+        Long orgId = context.getBean(OrganizationService.class).create(organization).getId();
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword("password");
+        Long userId = context.getBean(UserService.class).create(user, orgId).getId();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        userUrl = new URL("http://localhost:" + port + "/orgs/" + orgId + "/users/" + userId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) userUrl.openConnection();
+        int status = connection.getResponseCode();
+        try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[4096];
+            while (body != null && body.read(buffer) != -1) {
+                // drain so the connection goes back to the keep-alive cache
+            }
+        }
+        if (status != 200) {
+            throw new IllegalStateException("GET " + userUrl + " answered " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,113 @@
+package com.backend.tasks.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lists {@value #ORGANIZATIONS} organizations over HTTP, page by page through GET /orgs?limit=1000, with the
+ * default JSON settings and with the prod profile (compact output, Afterburner, gzip). The client accepts gzip
+ * in both cases. Sample time gives the latency percentiles of a whole listing; the bytes read off the socket
+ * per listing are printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JsonProfileBenchmark {
+    private static final int ORGANIZATIONS = 10_000;
+    private static final int LIMIT = 1000;
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private long wireBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(
+                "spring.profiles.active=" + profile,
+                "logging.level.com.backend.tasks=OFF");
+        context.getBean(JdbcTemplate.class).update("insert into organization (id, name) "
+                + "select x, 'Organization ' || x from system_range(1, ?)", ORGANIZATIONS);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/orgs?limit=" + LIMIT;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println();
+        System.out.println(profile + ": " + wireBytes + " bytes on the wire per listing of " + ORGANIZATIONS + " organizations");
+        context.close();
+    }
+
+    @Benchmark
+    public int listOrganizations() throws IOException {
+        int count = 0;
+        long bytes = 0;
+        String cursor = null;
+        do {
+            String url = cursor == null ? baseUrl : baseUrl + "&cursor=" + URLEncoder.encode(cursor, "UTF-8");
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (connection.getResponseCode() != 200) {
+                throw new IllegalStateException("GET " + url + " answered " + connection.getResponseCode());
+            }
+            byte[] body = readFully(connection.getInputStream());
+            bytes += body.length;
+            InputStream json = new ByteArrayInputStream(body);
+            if ("gzip".equals(connection.getHeaderField("Content-Encoding"))) {
+                json = new GZIPInputStream(json);
+            }
+            JsonNode page = objectMapper.readTree(json);
+            count += page.get("items").size();
+            JsonNode nextCursor = page.get("next_cursor");
+            cursor = nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText();
+        } while (cursor != null);
+        if (count != ORGANIZATIONS) {
+            throw new IllegalStateException("Listed " + count + " organizations");
+        }
+        wireBytes = bytes;
+        return count;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.dto.OrganizationExpandedReadDto;
+import com.backend.tasks.dto.OrganizationReadDto;
+import com.backend.tasks.dto.UserCreateDto;
+import com.backend.tasks.dto.UserReadDto;
+import com.backend.tasks.mapper.OrganizationMapper;
+import com.backend.tasks.mapper.UserMapper;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappings used by the controllers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final int USERS_PER_ORGANIZATION = 10;
+
+    private User user;
+    private UserCreateDto userCreateDto;
+    private Organization organization;
+
+    @Setup
+    public void setUp() {
+        organization = new Organization();
+        organization.setId(1L);
+        organization.setName("Organization A");
+        Set<User> users = new HashSet<>();
+        for (long i = 0; i < USERS_PER_ORGANIZATION; i++) {
+            User organizationUser = new User();
+            organizationUser.setId(i);
+            organizationUser.setUsername("user-" + i);
+            organizationUser.setPassword("password");
+            organizationUser.setOrganization(organization);
+            users.add(organizationUser);
+        }
+        organization.setUsers(users);
+        user = users.iterator().next();
+
+        userCreateDto = new UserCreateDto();
+        userCreateDto.setUsername("user");
+        userCreateDto.setPassword("password");
+    }
+
+    @Benchmark
+    public UserReadDto userToUserReadDto() {
+        return UserMapper.INSTANCE.userToUserReadDto(user);
+    }
+
+    @Benchmark
+    public User userCreateDtoToUser() {
+        return UserMapper.INSTANCE.userCreateDtoToUser(userCreateDto);
+    }
+
+    @Benchmark
+    public OrganizationReadDto organizationToOrganizationReadDto() {
+        return OrganizationMapper.INSTANCE.organizationToOrganizationReadDto(organization);
+    }
+
+    @Benchmark
+    public OrganizationExpandedReadDto organizationToOrganizationExpandedReadDto() {
+        return OrganizationMapper.INSTANCE.organizationToOrganizationExpandedReadDto(organization);
+    }
+}
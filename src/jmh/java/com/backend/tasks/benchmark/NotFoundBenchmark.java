@@ -0,0 +1,74 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.service.org.OrganizationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Throughput of GET /orgs/{orgId}/users/{userId} for a user that does not exist, with and without
+ * stack traces on business exceptions. Application logging is switched off so the
+ * per-miss error log line does not hide the difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundBenchmark {
+    @Param({"false", "true"})
+    private boolean stackTraces;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String missingUserUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(
+                "tasks.exceptions.stack-traces=" + stackTraces,
+                "logging.level.com.backend.tasks=OFF");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        Organization organization = new Organization();
+        organization.setName("Benchmark organization");
+        Long orgId = context.getBean(OrganizationService.class).create(organization).getId();
+        missingUserUrl = "/orgs/" + orgId + "/users/" + Long.MAX_VALUE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getMissingUser() throws Exception {
+        return mockMvc.perform(get(missingUserUrl)).andReturn();
+    }
+
+    @Benchmark
+    public ObjectNotFoundException newNotFoundException() {
+        return new ObjectNotFoundException("User", Long.MAX_VALUE);
+    }
+}
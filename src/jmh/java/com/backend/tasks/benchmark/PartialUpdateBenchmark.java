@@ -0,0 +1,52 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.mapper.UserMapper;
+import com.backend.tasks.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The generated partial update applied by UserServiceImpl.update against the reflective one it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartialUpdateBenchmark {
+    private User existingUser;
+    private User partialUser;
+
+    @Setup
+    public void setUp() {
+        existingUser = new User();
+        existingUser.setId(1L);
+        existingUser.setUsername("existing");
+        existingUser.setPassword("password");
+
+        partialUser = new User();
+        partialUser.setUsername("renamed");
+    }
+
+    @Benchmark
+    public Object reflective() {
+        return ReflectivePartialUpdate.partialUpdate(existingUser, partialUser);
+    }
+
+    @Benchmark
+    public User generated() {
+        UserMapper.INSTANCE.updateUser(partialUser, existingUser);
+        return existingUser;
+    }
+}
@@ -1,4 +1,4 @@
-package com.backend.tasks;
+package com.backend.tasks.benchmark;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
@@ -7,9 +7,16 @@ import org.springframework.beans.BeanWrapperImpl;
 import java.beans.FeatureDescriptor;
 import java.util.stream.Stream;
 
-public class PersistenceUtils {
+/**
+ * The reflective partial update UserServiceImpl used before the generated
+ * UserMapper.updateUser, kept as the baseline for {@link PartialUpdateBenchmark}.
+ */
+final class ReflectivePartialUpdate {
 
-    public static Object partialUpdate(Object dbObject, Object partialUpdateObject){
+    private ReflectivePartialUpdate() {
+    }
+
+    static Object partialUpdate(Object dbObject, Object partialUpdateObject) {
         String[] ignoredProperties = getNullPropertyNames(partialUpdateObject);
         BeanUtils.copyProperties(partialUpdateObject, dbObject, ignoredProperties);
         return dbObject;
@@ -22,6 +29,4 @@ public class PersistenceUtils {
                 .filter(propertyName -> wrappedSource.getPropertyValue(propertyName) == null)
                 .toArray(String[]::new);
     }
-
-
 }
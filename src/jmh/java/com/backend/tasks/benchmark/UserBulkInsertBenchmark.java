@@ -0,0 +1,76 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.PooledSequenceGenerator;
+import com.backend.tasks.model.User;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserCreateResult;
+import com.backend.tasks.service.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.createAll throughput for different id allocation sizes.
+ * An increment size of 1 needs one sequence call per insert, larger sizes reserve ids in blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBulkInsertBenchmark {
+    @Param({"1", "50"})
+    private int incrementSize;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Long orgId;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(
+                "spring.jpa.properties." + PooledSequenceGenerator.INCREMENT_SIZE_SETTING + "=" + incrementSize);
+        userService = context.getBean(UserService.class);
+        Organization organization = new Organization();
+        organization.setName("Benchmark organization");
+        orgId = context.getBean(OrganizationService.class).create(organization).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserCreateResult> createAll() {
+        List<User> users = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            User user = new User();
+            user.setUsername("user-" + counter++);
+            user.setPassword("password");
+            users.add(user);
+        }
+        return userService.createAll(users, orgId);
+    }
+}
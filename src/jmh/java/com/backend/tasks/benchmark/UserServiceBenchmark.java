@@ -0,0 +1,86 @@
+package com.backend.tasks.benchmark;
+
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService create, find and update against the embedded H2 database, transactions included,
+ * once on the unpooled DataSource from Application and once on the Hikari pool of the pooled profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+    @Param({"embedded", "pooled"})
+    public String dataSource;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private Long orgId;
+    private User existingUser;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "pooled".equals(dataSource)
+                ? BenchmarkContexts.start("spring.profiles.active=pooled")
+                : BenchmarkContexts.start();
+        userService = context.getBean(UserService.class);
+        Organization organization = new Organization();
+        organization.setName("Benchmark organization");
+        orgId = context.getBean(OrganizationService.class).create(organization).getId();
+        existingUser = userService.create(user("existing"), orgId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User create() {
+        return userService.create(user("user-" + counter++), orgId);
+    }
+
+    @Benchmark
+    public User find() {
+        return userService.find(existingUser.getId(), orgId);
+    }
+
+    @Benchmark
+    public User update() {
+        User user = new User();
+        user.setId(existingUser.getId());
+        user.setUsername(existingUser.getUsername());
+        user.setPassword("password-" + counter++);
+        return userService.update(user, orgId);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        return user;
+    }
+}
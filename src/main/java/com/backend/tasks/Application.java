@@ -3,6 +3,7 @@ package com.backend.tasks;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
@@ -14,7 +15,12 @@ public class Application {
         SpringApplication.run(Application.class, args);
     }
 
+    /**
+     * Unpooled embedded database, used unless the pooled profile is active. That profile leaves the DataSource
+     * to Spring Boot, which builds a HikariCP pool from the spring.datasource properties.
+     */
     @Bean
+    @Profile("!pooled")
     public DataSource dataSource() {
         return new EmbeddedDatabaseBuilder()
                 .generateUniqueName(true)
@@ -0,0 +1,28 @@
+package com.backend.tasks;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class ConstraintUtils {
+
+    private ConstraintUtils() {
+    }
+
+    /**
+     * Tells whether the exception was caused by the named database constraint.
+     * Databases report the name in their own case and some decorate it (H2 appends the backing index),
+     * so the reported name only has to contain the given one.
+     */
+    public static boolean isViolated(DataIntegrityViolationException exception, String constraintName) {
+        for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String violatedName = ((ConstraintViolationException) cause).getConstraintName();
+                return violatedName != null
+                        && violatedName.toLowerCase(Locale.ROOT).contains(constraintName.toLowerCase(Locale.ROOT));
+            }
+        }
+        return false;
+    }
+}
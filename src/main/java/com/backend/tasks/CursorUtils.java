@@ -0,0 +1,35 @@
+package com.backend.tasks;
+
+import com.backend.tasks.exceptions.CustomValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes opaque keyset pagination cursors.
+ * A cursor carries the id of the last returned row; the next page is read with "id > cursor".
+ */
+public class CursorUtils {
+
+    public static final String DEFAULT_LIMIT = "100";
+    public static final long MAX_LIMIT = 1000;
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new CustomValidationException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.backend.tasks;
+
+import com.backend.tasks.exceptions.PreconditionFailedException;
+
+/**
+ * Strong ETags carrying the entity version, so a changed version is a changed representation.
+ */
+public class ETagUtils {
+
+    public static String eTag(Long version) {
+        if (version == null) {
+            return null;
+        }
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Version required by an If-Match header.
+     *
+     * @return null when the header is absent or "*"
+     * @throws PreconditionFailedException when the header cannot match a version, e.g. a weak or foreign ETag
+     */
+    public static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // not one of our ETags
+            }
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version");
+    }
+}
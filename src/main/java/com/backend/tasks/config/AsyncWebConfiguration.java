@@ -0,0 +1,102 @@
+package com.backend.tasks.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Asynchronous execution mode, selected at startup with tasks.web.execution-mode=async.
+ * The Tomcat thread only reads and validates the request, then hands the controller method over to the bounded
+ * requestExecutor and goes back to the pool; the result is written in an async dispatch. Tomcat threads are then
+ * no longer held while requests wait on JDBC, and a burst beyond the executor queue is answered with 503 instead
+ * of piling up in the Tomcat accept queue.
+ * Handlers that already return an asynchronous type, such as the streaming user export, are left as they are.
+ * In the default blocking mode none of this is registered and controller methods run on the Tomcat thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.web.execution-mode", havingValue = "async")
+public class AsyncWebConfiguration implements WebMvcConfigurer {
+    private final ThreadPoolTaskExecutor requestExecutor;
+    private final long timeoutMillis;
+
+    public AsyncWebConfiguration(@Qualifier("requestExecutor") ThreadPoolTaskExecutor requestExecutor,
+                                 @Value("${tasks.web.async.timeout-ms:30000}") long timeoutMillis) {
+        this.requestExecutor = requestExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(requestExecutor);
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+
+    @Bean
+    public WebMvcRegistrations requestExecutorRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new OffloadingHandlerAdapter();
+            }
+        };
+    }
+
+    private static class OffloadingHandlerAdapter extends RequestMappingHandlerAdapter {
+        private static final List<Class<?>> ASYNC_RETURN_TYPES = Arrays.asList(Callable.class, WebAsyncTask.class,
+                DeferredResult.class, CompletionStage.class, ListenableFuture.class, StreamingResponseBody.class,
+                ResponseBodyEmitter.class);
+
+        @Override
+        protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+            return returnsAsyncType(handlerMethod)
+                    ? super.createInvocableHandlerMethod(handlerMethod)
+                    : new OffloadedHandlerMethod(handlerMethod);
+        }
+
+        private static boolean returnsAsyncType(HandlerMethod handlerMethod) {
+            ResolvableType returnType = ResolvableType.forMethodReturnType(handlerMethod.getMethod());
+            if (HttpEntity.class.isAssignableFrom(returnType.resolve(Object.class))) {
+                returnType = returnType.getGeneric();
+            }
+            Class<?> type = returnType.resolve(Object.class);
+            return ASYNC_RETURN_TYPES.stream().anyMatch(asyncType -> asyncType.isAssignableFrom(type));
+        }
+    }
+
+    /**
+     * Returns the controller call as a Callable, which Spring MVC runs on the configured task executor.
+     * Spring resolves the concurrent result as if the method had been declared to return Callable, so body
+     * generics are lost and bodies are written by their runtime type, which is what Jackson uses anyway.
+     */
+    private static class OffloadedHandlerMethod extends ServletInvocableHandlerMethod {
+        OffloadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) {
+            return (Callable<Object>) () -> super.doInvoke(args);
+        }
+    }
+}
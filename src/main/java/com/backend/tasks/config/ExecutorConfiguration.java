@@ -0,0 +1,79 @@
+package com.backend.tasks.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * Runs background organization deletions. Further deletions wait in the queue, so the load put on
+     * the database is bounded by the thread count and the chunk size rather than by the number of requests.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor organizationDeletionExecutor(@Value("${tasks.deletion.threads:1}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("org-deletion-");
+        return executor;
+    }
+
+    /**
+     * Runs password hashing and verification, keeping the CPU they burn off the request threads.
+     * A full queue rejects further passwords with TaskRejectedException instead of growing without bound.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor(@Value("${tasks.password.threads:2}") int threads,
+                                                          @Value("${tasks.password.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        return executor;
+    }
+
+    /**
+     * Runs controller methods when tasks.web.execution-mode is async, see {@link AsyncWebConfiguration}.
+     * Sized like the connection pool: a request holds a connection for most of the time it runs here.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tasks.web.execution-mode", havingValue = "async")
+    public ThreadPoolTaskExecutor requestExecutor(@Value("${tasks.web.async.threads:10}") int threads,
+                                                  @Value("${tasks.web.async.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("request-");
+        return executor;
+    }
+
+    /**
+     * Publishes executor.queued, executor.active, executor.completed and executor.pool.size tagged with the executor name.
+     */
+    @Bean
+    public MeterBinder executorMetrics(@Qualifier("organizationDeletionExecutor") ThreadPoolTaskExecutor organizationDeletionExecutor,
+                                       @Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor passwordHashingExecutor,
+                                       @Qualifier("requestExecutor") ObjectProvider<ThreadPoolTaskExecutor> requestExecutor) {
+        return registry -> {
+            new ExecutorServiceMetrics(organizationDeletionExecutor.getThreadPoolExecutor(), "organizationDeletion", Tags.empty())
+                    .bindTo(registry);
+            new ExecutorServiceMetrics(passwordHashingExecutor.getThreadPoolExecutor(), "passwordHashing", Tags.empty())
+                    .bindTo(registry);
+            ThreadPoolTaskExecutor request = requestExecutor.getIfAvailable();
+            if (request != null) {
+                new ExecutorServiceMetrics(request.getThreadPoolExecutor(), "request", Tags.empty()).bindTo(registry);
+            }
+        };
+    }
+}
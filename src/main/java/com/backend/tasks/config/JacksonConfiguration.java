@@ -0,0 +1,22 @@
+package com.backend.tasks.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfiguration {
+
+    /**
+     * Replaces the reflective getter and setter calls of the bean (de)serializers with generated accessors.
+     * Spring Boot registers Module beans with the application ObjectMapper. Property names need nothing extra:
+     * Jackson encodes each one once per serializer, including the snake_case names from the DTO annotations.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tasks.jackson.afterburner", havingValue = "true")
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -1,18 +1,34 @@
 package com.backend.tasks.controller;
 
+import com.backend.tasks.CursorUtils;
+import com.backend.tasks.ETagUtils;
 import com.backend.tasks.dto.OrganizationCreateOrUpdateDto;
+import com.backend.tasks.dto.OrganizationDeletionDto;
+import com.backend.tasks.dto.OrganizationExpandedReadDto;
 import com.backend.tasks.dto.OrganizationReadDto;
+import com.backend.tasks.dto.PageDto;
+import com.backend.tasks.exceptions.CustomValidationException;
 import com.backend.tasks.mapper.OrganizationMapper;
 import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.OrganizationDeletion;
+import com.backend.tasks.service.org.OrganizationDeletionService;
 import com.backend.tasks.service.org.OrganizationService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,17 +42,28 @@ import static org.springframework.http.HttpStatus.CREATED;
  * 2. Put to /orgs/{orgId} endpoint should update, save and return organization with orgId=orgId.
  * 3. Get to /orgs/{orgId} endpoint should fetch and return organization with orgId=orgId.
  * 4. Delete to /orgs/{orgId} endpoint should delete organization with orgId=orgId. Response status should be 204.
- * 5. Get to /orgs endpoint should return list of all organizations
+ * With ?async=true the users are deleted in the background: the response is 202 with the deletion job,
+ * whose progress is read from /orgs/deletions/{deletionId}.
+ * 5. Get to /orgs endpoint should return list of all organizations.
+ * The list is paged by id: pass the returned next_cursor as cursor to read the next page.
+ * Organizations are returned without users unless ?expand=users is requested.
+ * A single organization is returned with its version as ETag: If-None-Match answers 304 when it is unchanged,
+ * and If-Match makes an update fail with 412 when the organization has changed since it was read.
  */
 @Api
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(value = "/orgs")
 public class OrganizationController {
+    private static final String EXPAND_USERS = "users";
+
     private final OrganizationService organizationService;
+    private final OrganizationDeletionService organizationDeletionService;
 
-    public OrganizationController(OrganizationService organizationService) {
+    public OrganizationController(OrganizationService organizationService, OrganizationDeletionService organizationDeletionService) {
         this.organizationService = organizationService;
+        this.organizationDeletionService = organizationDeletionService;
     }
 
     @ApiResponses(value = {
@@ -55,12 +82,15 @@ public class OrganizationController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successful operation", response = OrganizationReadDto.class),
             @ApiResponse(code = 400, message = "Validation exception"),
-            @ApiResponse(code = 404, message = "Organization not found")})
+            @ApiResponse(code = 404, message = "Organization not found"),
+            @ApiResponse(code = 412, message = "Organization was changed since the If-Match version")})
     @PutMapping(value = "/{orgId}", produces = {"application/json"}, consumes = {"application/json"})
-    public ResponseEntity<OrganizationReadDto> update(@PathVariable("orgId") Long id, @Valid @RequestBody OrganizationCreateOrUpdateDto organizationDto) {
+    public ResponseEntity<OrganizationReadDto> update(@PathVariable("orgId") Long id, @Valid @RequestBody OrganizationCreateOrUpdateDto organizationDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Organization organization = OrganizationMapper.INSTANCE.organizationCreateOrUpdateDtoToOrganization(organizationDto);
         organization.setId(id);
+        organization.setVersion(ETagUtils.ifMatchVersion(ifMatch));
 
         /*Organization existingOrganization = organizationService.findById(id);
         if (isNull(existingOrganization)) {
@@ -69,39 +99,100 @@ public class OrganizationController {
 
         organization = organizationService.update(organization);
         OrganizationReadDto result = OrganizationMapper.INSTANCE.organizationToOrganizationReadDto(organization);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok().eTag(ETagUtils.eTag(organization.getVersion())).body(result);
     }
 
 
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successful operation", response = OrganizationReadDto.class),
             @ApiResponse(code = 400, message = "Validation exception"),
+            @ApiResponse(code = 304, message = "Organization matches the If-None-Match version"),
             @ApiResponse(code = 404, message = "Organization not found")})
     @GetMapping(value = "/{orgId}", produces = {"application/json"})
-    public ResponseEntity<OrganizationReadDto> findById(@PathVariable("orgId") Long orgId) {
+    public ResponseEntity<?> findById(@PathVariable("orgId") Long orgId,
+                                      @RequestParam(value = "expand", required = false) String expand,
+                                      WebRequest webRequest) {
+        if (expandUsers(expand)) {
+            // no ETag: the organization version does not change with its users
+            Organization organization = organizationService.findByIdWithUsers(orgId);
+            return ResponseEntity.ok(OrganizationMapper.INSTANCE.organizationToOrganizationExpandedReadDto(organization));
+        }
+        // usually served by the organization cache, so a 304 needs neither a query nor mapping and serialization
         Organization organization = organizationService.findById(orgId);
+        String eTag = ETagUtils.eTag(organization.getVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         OrganizationReadDto organizationDto = OrganizationMapper.INSTANCE.organizationToOrganizationReadDto(organization);
-        return ResponseEntity.ok(organizationDto);
+        return ResponseEntity.ok().eTag(eTag).body(organizationDto);
     }
 
     @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Deletion started", response = OrganizationDeletionDto.class),
             @ApiResponse(code = 204, message = "Successful operation"),
             @ApiResponse(code = 400, message = "Validation exception"),
             @ApiResponse(code = 404, message = "Organization not found")})
     @DeleteMapping(value = "/{orgId}", produces = {"application/json"})
-    public ResponseEntity delete(@PathVariable("orgId") Long orgId) {
+    public ResponseEntity delete(@PathVariable("orgId") Long orgId,
+                                 @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            OrganizationDeletion deletion = organizationDeletionService.start(orgId);
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/orgs/deletions/{deletionId}").buildAndExpand(deletion.getId()).toUri();
+            return ResponseEntity.accepted().location(location)
+                    .body(OrganizationMapper.INSTANCE.organizationDeletionToOrganizationDeletionDto(deletion));
+        }
         organizationService.delete(orgId);
         return ResponseEntity.noContent().build();
     }
 
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Successful operation", response = OrganizationReadDto.class,
-                    responseContainer = "List")})
+            @ApiResponse(code = 200, message = "Successful operation", response = OrganizationDeletionDto.class),
+            @ApiResponse(code = 404, message = "Deletion not found")})
+    @GetMapping(value = "/deletions/{deletionId}", produces = {"application/json"})
+    public ResponseEntity<OrganizationDeletionDto> findDeletion(@PathVariable("deletionId") Long deletionId) {
+        OrganizationDeletion deletion = organizationDeletionService.find(deletionId);
+        return ResponseEntity.ok(OrganizationMapper.INSTANCE.organizationDeletionToOrganizationDeletionDto(deletion));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful operation", response = PageDto.class),
+            @ApiResponse(code = 400, message = "Validation exception or unsupported expand value")})
     @GetMapping(produces = {"application/json"})
-    public ResponseEntity<List<OrganizationReadDto>> findAll() {
-        List<OrganizationReadDto> organizations = organizationService.findAll().stream()
+    public ResponseEntity<PageDto<?>> findAll(
+            @RequestParam(value = "limit", defaultValue = CursorUtils.DEFAULT_LIMIT) @Min(1) @Max(CursorUtils.MAX_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "expand", required = false) String expand) {
+        Long afterId = CursorUtils.decode(cursor);
+        if (expandUsers(expand)) {
+            Slice<Organization> organizations = organizationService.findAllWithUsers(afterId, limit);
+            List<OrganizationExpandedReadDto> items = organizations.stream()
+                    .map(OrganizationMapper.INSTANCE::organizationToOrganizationExpandedReadDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(new PageDto<>(items, nextCursor(organizations)));
+        }
+        Slice<Organization> organizations = organizationService.findAll(afterId, limit);
+        List<OrganizationReadDto> items = organizations.stream()
                 .map(OrganizationMapper.INSTANCE::organizationToOrganizationReadDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(organizations);
+        return ResponseEntity.ok(new PageDto<>(items, nextCursor(organizations)));
+    }
+
+    private static boolean expandUsers(String expand) {
+        if (expand == null) {
+            return false;
+        }
+        if (!EXPAND_USERS.equals(expand)) {
+            throw new CustomValidationException("Unsupported expand value: " + expand);
+        }
+        return true;
+    }
+
+    private static String nextCursor(Slice<Organization> organizations) {
+        if (!organizations.hasNext()) {
+            return null;
+        }
+        List<Organization> content = organizations.getContent();
+        return CursorUtils.encode(content.get(content.size() - 1).getId());
     }
 }
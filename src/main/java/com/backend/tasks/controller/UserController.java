@@ -1,19 +1,44 @@
 package com.backend.tasks.controller;
 
+import com.backend.tasks.CursorUtils;
+import com.backend.tasks.ETagUtils;
+import com.backend.tasks.dto.PageDto;
+import com.backend.tasks.dto.UserAuthenticateDto;
+import com.backend.tasks.dto.UserBulkCreateResultDto;
 import com.backend.tasks.dto.UserCreateDto;
 import com.backend.tasks.dto.UserReadDto;
+import com.backend.tasks.dto.UserSummaryDto;
 import com.backend.tasks.dto.UserUpdateDto;
 import com.backend.tasks.mapper.UserMapper;
 import com.backend.tasks.model.User;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserCreateResult;
 import com.backend.tasks.service.user.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,17 +52,33 @@ import static org.springframework.http.HttpStatus.CREATED;
  * 2. Put to /orgs/{orgId}/users/{userId} endpoint should update, save and return user with orgId=userId for organization with orgId=orgId.
  * 3. Get to /orgs/{orgId}/users/{userId} endpoint should fetch and return user with orgId=userId for organization with orgId=orgId.
  * 4. Delete to /orgs/{orgId}/users/{userId} endpoint should delete user with orgId=userId for organization with orgId=orgId. Response status should be 204.
- * 5. Get to /orgs/{orgId}/users endpoint should return list of all users for organization with orgId=orgId
+ * 5. Get to /orgs/{orgId}/users endpoint should return list of all users for organization with orgId=orgId.
+ * The list is paged by id: pass the returned next_cursor as cursor to read the next page.
+ * 6. Get to /orgs/{orgId}/users/export endpoint streams all users of the organization as newline delimited JSON.
+ * 7. Post to /orgs/{orgId}/users/bulk endpoint creates up to 1000 users at once and reports a status per user.
+ * 8. Post to /orgs/{orgId}/users/authenticate endpoint checks a username and password, answering 401 when they do not match.
+ * A single user is returned with its version as ETag: If-None-Match answers 304 when it is unchanged,
+ * and If-Match makes an update fail with 412 when the user has changed since it was read.
  */
 @Api
 @Slf4j
+@Validated
 @RestController
 @RequestMapping(value = "/orgs/{orgId}/users")
 public class UserController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final int MAX_BULK_SIZE = 1000;
+
     private final UserService userService;
+    private final OrganizationService organizationService;
+    private final ObjectWriter exportWriter;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, OrganizationService organizationService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.organizationService = organizationService;
+        this.exportWriter = objectMapper.writerFor(UserReadDto.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @ApiResponses(value = {
@@ -52,28 +93,85 @@ public class UserController {
         return ResponseEntity.status(CREATED).body(result);
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "All users created", response = UserBulkCreateResultDto.class,
+                    responseContainer = "List"),
+            @ApiResponse(code = 207, message = "Some usernames already exist, see the status of each user",
+                    response = UserBulkCreateResultDto.class, responseContainer = "List"),
+            @ApiResponse(code = 400, message = "Validation exception"),
+            @ApiResponse(code = 404, message = "Organization not found")})
+    @PostMapping(value = "/bulk", produces = {"application/json"}, consumes = {"application/json"})
+    public ResponseEntity<List<UserBulkCreateResultDto>> createAll(
+            @PathVariable("orgId") Long orgId,
+            @RequestBody @Size(min = 1, max = MAX_BULK_SIZE) List<@Valid UserCreateDto> userDtos) {
+        List<User> users = new ArrayList<>(userDtos.size());
+        for (UserCreateDto userDto : userDtos) {
+            users.add(UserMapper.INSTANCE.userCreateDtoToUser(userDto));
+        }
+        List<UserCreateResult> results = userService.createAll(users, orgId);
+
+        List<UserBulkCreateResultDto> resultDtos = new ArrayList<>(results.size());
+        boolean allCreated = true;
+        for (int i = 0; i < results.size(); i++) {
+            UserCreateResult result = results.get(i);
+            User user = result.getUser();
+            if (result.isCreated()) {
+                resultDtos.add(new UserBulkCreateResultDto(i, CREATED.value(), user.getId(), user.getUsername(), null));
+            } else {
+                allCreated = false;
+                resultDtos.add(new UserBulkCreateResultDto(i, HttpStatus.CONFLICT.value(), null, user.getUsername(),
+                        "User [" + user.getUsername() + "] already exist"));
+            }
+        }
+        return ResponseEntity.status(allCreated ? CREATED : HttpStatus.MULTI_STATUS).body(resultDtos);
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Credentials are valid", response = UserSummaryDto.class),
+            @ApiResponse(code = 400, message = "Validation exception"),
+            @ApiResponse(code = 401, message = "Unknown username, wrong password or organization not found")})
+    @PostMapping(value = "/authenticate", produces = {"application/json"}, consumes = {"application/json"})
+    public ResponseEntity<UserSummaryDto> authenticate(@PathVariable("orgId") Long orgId,
+                                                       @Valid @RequestBody UserAuthenticateDto credentials) {
+        Long userId = userService.authenticate(credentials.getUsername(), credentials.getPassword(), orgId);
+        UserSummaryDto result = new UserSummaryDto();
+        result.setId(userId);
+        result.setUsername(credentials.getUsername());
+        return ResponseEntity.ok(result);
+    }
+
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successful operation", response = UserReadDto.class),
             @ApiResponse(code = 400, message = "Validation exception"),
-            @ApiResponse(code = 404, message = "User not found")})
+            @ApiResponse(code = 404, message = "User not found"),
+            @ApiResponse(code = 412, message = "User was changed since the If-Match version")})
     @PutMapping(value = "/{userId}", produces = {"application/json"}, consumes = {"application/json"})
-    public ResponseEntity<UserReadDto> update(@PathVariable("orgId") Long orgId, @PathVariable("userId") Long userId, @Valid @RequestBody UserUpdateDto userUpdateDto) {
+    public ResponseEntity<UserReadDto> update(@PathVariable("orgId") Long orgId, @PathVariable("userId") Long userId, @Valid @RequestBody UserUpdateDto userUpdateDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         User user = UserMapper.INSTANCE.userUpdateDtoToUser(userUpdateDto);
         user.setId(userId);
+        user.setVersion(ETagUtils.ifMatchVersion(ifMatch));
         user = userService.update(user, orgId);
         UserReadDto result = UserMapper.INSTANCE.userToUserReadDto(user);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok().eTag(ETagUtils.eTag(user.getVersion())).body(result);
     }
 
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successful operation", response = UserReadDto.class),
             @ApiResponse(code = 400, message = "Validation exception"),
+            @ApiResponse(code = 304, message = "User matches the If-None-Match version"),
             @ApiResponse(code = 404, message = "User not found")})
     @GetMapping(value = "/{userId}", produces = {"application/json"})
-    public ResponseEntity<UserReadDto> findById(@PathVariable("orgId") Long orgId, @PathVariable("userId") Long userId) {
+    public ResponseEntity<UserReadDto> findById(@PathVariable("orgId") Long orgId, @PathVariable("userId") Long userId,
+                                                WebRequest webRequest) {
+        // a conditional GET reads the version only and, when it still matches, neither loads nor serializes the user
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(ETagUtils.eTag(userService.findVersion(userId, orgId)))) {
+            return null;
+        }
         User existingUser = userService.find(userId, orgId);
         UserReadDto result = UserMapper.INSTANCE.userToUserReadDto(existingUser);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok().eTag(ETagUtils.eTag(existingUser.getVersion())).body(result);
     }
 
     @ApiResponses(value = {
@@ -88,14 +186,43 @@ public class UserController {
 
 
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Successful operation", response = UserReadDto.class,
-                    responseContainer = "List")})
+            @ApiResponse(code = 200, message = "Successful operation", response = PageDto.class),
+            @ApiResponse(code = 400, message = "Validation exception"),
+            @ApiResponse(code = 404, message = "Organization not found")})
     @GetMapping(produces = {"application/json"})
-    public ResponseEntity<List<UserReadDto>> findAllByOrgId(@PathVariable("orgId") Long orgId) {
-        List<UserReadDto> organizations = userService.findAllByOrgId(orgId).stream()
+    public ResponseEntity<PageDto<UserReadDto>> findAllByOrgId(
+            @PathVariable("orgId") Long orgId,
+            @RequestParam(value = "limit", defaultValue = CursorUtils.DEFAULT_LIMIT) @Min(1) @Max(CursorUtils.MAX_LIMIT) int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        Slice<User> users = userService.findAllByOrgId(orgId, CursorUtils.decode(cursor), limit);
+        List<UserReadDto> items = users.stream()
                 .map(UserMapper.INSTANCE::userToUserReadDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(organizations);
+        String nextCursor = users.hasNext() ? CursorUtils.encode(items.get(items.size() - 1).getId()) : null;
+        return ResponseEntity.ok(new PageDto<>(items, nextCursor));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successful operation, one user per line", response = UserReadDto.class),
+            @ApiResponse(code = 404, message = "Organization not found")})
+    // no "produces": it would restrict the 404 error body to NDJSON as well, the content type is set below
+    @GetMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("orgId") Long orgId) {
+        // checked before streaming starts: once the body is streamed the error can no longer be rendered as JSON
+        organizationService.findById(orgId);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = exportWriter.getFactory().createGenerator(outputStream);
+            userService.exportAllByOrgId(orgId, user -> {
+                try {
+                    exportWriter.writeValue(generator, UserMapper.INSTANCE.userToUserReadDto(user));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
     }
 
 }
@@ -0,0 +1,45 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of a background organization deletion started with DELETE /orgs/{orgId}?async=true.
+ */
+@Data
+public class OrganizationDeletionDto {
+    @ApiModelProperty(value = "Deletion job ID")
+    @JsonProperty("id")
+    private Long id;
+
+    @ApiModelProperty(value = "ID of the deleted organization")
+    @JsonProperty("org_id")
+    private Long orgId;
+
+    @ApiModelProperty(value = "RUNNING, COMPLETED or FAILED")
+    @JsonProperty("status")
+    private String status;
+
+    @ApiModelProperty(value = "Users of the organization when the deletion started")
+    @JsonProperty("total_users")
+    private long totalUsers;
+
+    @ApiModelProperty(value = "Users deleted so far")
+    @JsonProperty("deleted_users")
+    private long deletedUsers;
+
+    @ApiModelProperty(value = "Cause of a failed deletion")
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    @ApiModelProperty(value = "Start time")
+    @JsonProperty("created_at")
+    private Instant createdAt;
+
+    @ApiModelProperty(value = "Completion or failure time")
+    @JsonProperty("finished_at")
+    private Instant finishedAt;
+}
@@ -0,0 +1,22 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class OrganizationExpandedReadDto {
+    @ApiModelProperty(value = "Organization ID")
+    @JsonProperty("id")
+    private Long id;
+
+    @ApiModelProperty(value = "name")
+    @JsonProperty("name")
+    private String name;
+
+    @ApiModelProperty(value = "users")
+    @JsonProperty("users")
+    private Set<UserSummaryDto> users;
+}
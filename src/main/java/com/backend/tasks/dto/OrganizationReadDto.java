@@ -7,8 +7,10 @@ import lombok.Data;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
-import java.util.Set;
 
+/**
+ * Organization summary. Users are only returned by {@link OrganizationExpandedReadDto} on ?expand=users.
+ */
 @Data
 public class OrganizationReadDto {
     @ApiModelProperty(value = "Organization ID")
@@ -21,7 +23,4 @@ public class OrganizationReadDto {
     @JsonProperty("name")
     @NotEmpty
     private String name;
-
-    @ApiModelProperty(value = "users")
-    private Set<UserCreateDto> users;
 }
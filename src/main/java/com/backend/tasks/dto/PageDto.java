@@ -0,0 +1,22 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDto<T> {
+    @ApiModelProperty(value = "items")
+    @JsonProperty("items")
+    private List<T> items;
+
+    @ApiModelProperty(value = "Opaque cursor of the next page, absent on the last page")
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import lombok.ToString;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+@Data
+@ToString(exclude = "password")
+public class UserAuthenticateDto {
+    @ApiModelProperty(required = true)
+    @Size(max = 250)
+    @JsonProperty("username")
+    @NotEmpty
+    private String username;
+
+    @ApiModelProperty(required = true)
+    @Size(max = 250)
+    @JsonProperty("password")
+    @NotEmpty
+    private String password;
+}
@@ -0,0 +1,32 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBulkCreateResultDto {
+    @ApiModelProperty(value = "Position of the user in the request")
+    @JsonProperty("index")
+    private int index;
+
+    @ApiModelProperty(value = "201 when the user was created, 409 when the username already exists")
+    @JsonProperty("status")
+    private int status;
+
+    @ApiModelProperty(value = "ID of the created user")
+    @JsonProperty("id")
+    private Long id;
+
+    @ApiModelProperty(value = "username")
+    @JsonProperty("username")
+    private String username;
+
+    @ApiModelProperty(value = "Error message")
+    @JsonProperty("message")
+    private String message;
+}
@@ -21,10 +21,4 @@ public class UserReadDto {
     @NotEmpty
     private String username;
 
-    @ApiModelProperty(required = true)
-    @Size(min = 2, max = 250)
-    @JsonProperty("password")
-    @NotEmpty
-    private String password;
-
 }
@@ -0,0 +1,16 @@
+package com.backend.tasks.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+public class UserSummaryDto {
+    @ApiModelProperty(value = "User ID")
+    @JsonProperty("id")
+    private Long id;
+
+    @ApiModelProperty(value = "username")
+    @JsonProperty("username")
+    private String username;
+}
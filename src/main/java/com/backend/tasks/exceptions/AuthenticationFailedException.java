@@ -0,0 +1,11 @@
+package com.backend.tasks.exceptions;
+
+/**
+ * Unknown username or wrong password. The message does not tell which, so it cannot be used to probe usernames.
+ */
+public class AuthenticationFailedException extends BusinessException {
+
+    public AuthenticationFailedException() {
+        super("Invalid username or password");
+    }
+}
@@ -0,0 +1,22 @@
+package com.backend.tasks.exceptions;
+
+/**
+ * Base class for exceptions that report an expected client error, such as a missing or duplicate object.
+ * They are translated into a 4xx response by {@link ExceptionTranslator}, so the stack trace is not needed
+ * and is not filled in unless stack traces are switched on with {@code tasks.exceptions.stack-traces}.
+ */
+public abstract class BusinessException extends RuntimeException {
+    private static volatile boolean stackTraceEnabled = Boolean.getBoolean("tasks.exceptions.stack-traces");
+
+    protected BusinessException(String message) {
+        super(message, null, false, stackTraceEnabled);
+    }
+
+    public static boolean isStackTraceEnabled() {
+        return stackTraceEnabled;
+    }
+
+    public static void setStackTraceEnabled(boolean enabled) {
+        stackTraceEnabled = enabled;
+    }
+}
@@ -0,0 +1,15 @@
+package com.backend.tasks.exceptions;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@code tasks.exceptions.stack-traces} from the application configuration to {@link BusinessException}.
+ */
+@Component
+class BusinessExceptionSettings {
+
+    BusinessExceptionSettings(@Value("${tasks.exceptions.stack-traces:false}") boolean stackTraceEnabled) {
+        BusinessException.setStackTraceEnabled(stackTraceEnabled);
+    }
+}
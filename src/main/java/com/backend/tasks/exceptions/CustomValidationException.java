@@ -1,6 +1,6 @@
 package com.backend.tasks.exceptions;
 
-public class CustomValidationException extends RuntimeException {
+public class CustomValidationException extends BusinessException {
 
     public CustomValidationException(String message) {
         super(message);
@@ -1,6 +1,13 @@
 package com.backend.tasks.exceptions;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -18,37 +25,95 @@ import javax.validation.ConstraintViolationException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Every handled exception is counted as tasks.exceptions.handled, tagged with the exception class and the response status.
+ */
 @RestControllerAdvice
 public class ExceptionTranslator {
+    public static final String COUNTER_NAME = "tasks.exceptions.handled";
 
     private final MessageSource messageSource;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Counts into the global registry, which discards the counts unless a registry has been added to it.
+     */
     public ExceptionTranslator(MessageSource messageSource) {
+        this(messageSource, Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public ExceptionTranslator(MessageSource messageSource, MeterRegistry meterRegistry) {
         this.messageSource = messageSource;
+        this.meterRegistry = meterRegistry;
     }
 
 
     @ExceptionHandler({ObjectNotFoundException.class})
     @ResponseStatus(HttpStatus.NOT_FOUND)
     protected ApiError handleNotFoundExceptions(RuntimeException e) {
+        count(e, HttpStatus.NOT_FOUND);
         return new ApiError(e.getMessage());
     }
 
     @ExceptionHandler
     protected ResponseEntity<?> handleBindException(BindException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
         return ResponseEntity.badRequest().body(convert(exception.getAllErrors()));
     }
 
     @ExceptionHandler({ObjectAlreadyExistException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
     protected ResponseEntity<?> handleObjectAlreadyExistException(RuntimeException exception) {
+        count(exception, HttpStatus.CONFLICT);
         return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiError(exception.getMessage()));
     }
 
 
+    /**
+     * Exception handler for constraint violations not translated by the services, e.g. a duplicate username
+     * inserted concurrently with a bulk create.
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    protected ResponseEntity<?> handleDataIntegrityViolationException(DataIntegrityViolationException exception) {
+        count(exception, HttpStatus.CONFLICT);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiError("Request conflicts with existing data"));
+    }
+
+    /**
+     * If-Match did not match the current version, or the entity was changed concurrently between read and flush.
+     */
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    protected ResponseEntity<?> handlePreconditionFailedException(RuntimeException exception) {
+        count(exception, HttpStatus.PRECONDITION_FAILED);
+        String message = exception instanceof PreconditionFailedException
+                ? exception.getMessage() : "Entity was changed by another request";
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new ApiError(message));
+    }
+
+    @ExceptionHandler({AuthenticationFailedException.class})
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    protected ResponseEntity<?> handleAuthenticationFailedException(AuthenticationFailedException exception) {
+        count(exception, HttpStatus.UNAUTHORIZED);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new ApiError(exception.getMessage()));
+    }
+
+    /**
+     * A full password hashing queue: the client may retry once the backlog is worked off.
+     */
+    @ExceptionHandler({TaskRejectedException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    protected ResponseEntity<?> handleTaskRejectedException(TaskRejectedException exception) {
+        count(exception, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiError("Server is busy, retry later"));
+    }
+
     @ExceptionHandler({CustomValidationException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     protected ResponseEntity<?> handleCustomValidationException(RuntimeException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
         return ResponseEntity.badRequest().body(new ApiError(exception.getMessage()));
     }
 
@@ -57,6 +122,7 @@ public class ExceptionTranslator {
      */
     @ExceptionHandler
     protected ResponseEntity<?> handleConstraintViolationException(ConstraintViolationException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
 
         List<ApiError> apiErrors = new ArrayList<>();
 
@@ -73,6 +139,7 @@ public class ExceptionTranslator {
      */
     @ExceptionHandler
     protected ResponseEntity<?> handleMethodArgumentNotValidException(MethodArgumentNotValidException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
 
         return ResponseEntity.badRequest().body(convert(exception.getBindingResult().getAllErrors()));
     }
@@ -82,6 +149,7 @@ public class ExceptionTranslator {
      */
     @ExceptionHandler
     protected ResponseEntity<?> handleServletRequestBindingException(ServletRequestBindingException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
 
         return ResponseEntity.badRequest().body(new ApiError(null, null, exception.getMessage()));
     }
@@ -91,10 +159,19 @@ public class ExceptionTranslator {
      */
     @ExceptionHandler
     protected ResponseEntity<?> handleHttpMessageNotReadableException(HttpMessageNotReadableException exception) {
+        count(exception, HttpStatus.BAD_REQUEST);
 
         return ResponseEntity.badRequest().body(new ApiError(null, null, exception.getMessage()));
     }
 
+    private void count(Exception exception, HttpStatus status) {
+        Counter.builder(COUNTER_NAME)
+                .tag("exception", exception.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
+
     private List<ApiError> convert(List<ObjectError> objectErrors) {
 
         List<ApiError> apiErrors = new ArrayList<>();
@@ -1,6 +1,6 @@
 package com.backend.tasks.exceptions;
 
-public class ObjectAlreadyExistException extends RuntimeException {
+public class ObjectAlreadyExistException extends BusinessException {
 
     public ObjectAlreadyExistException(String entityName, String identity) {
         super(entityName + " [" + identity + "] already exist");
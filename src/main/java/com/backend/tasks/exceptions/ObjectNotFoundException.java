@@ -1,6 +1,6 @@
 package com.backend.tasks.exceptions;
 
-public class ObjectNotFoundException extends RuntimeException {
+public class ObjectNotFoundException extends BusinessException {
 
     public ObjectNotFoundException(String entityName, Long identity) {
         super(entityName + "[" + identity + "] is not found");
@@ -0,0 +1,8 @@
+package com.backend.tasks.exceptions;
+
+public class PreconditionFailedException extends BusinessException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.tasks.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to the replica at tasks.datasource.replica.url by wrapping the DataSource bean
+ * in a {@link ReadOnlyRoutingDataSource}. Runs before {@link StatementCountingDataSourcePostProcessor},
+ * so statements on both databases are counted. The replica is expected to carry the schema already;
+ * Flyway only migrates the primary.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.datasource.replica.url")
+public class ReplicaRoutingDataSourcePostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maximumPoolSize;
+
+    private DataSource primary;
+    private HikariDataSource replica;
+
+    public ReplicaRoutingDataSourcePostProcessor(@Value("${tasks.datasource.replica.url}") String url,
+                                                 @Value("${tasks.datasource.replica.username:}") String username,
+                                                 @Value("${tasks.datasource.replica.password:}") String password,
+                                                 @Value("${tasks.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof DataSource) || replica != null) {
+            return bean;
+        }
+        primary = (DataSource) bean;
+        replica = new HikariDataSource();
+        replica.setPoolName("tasks-replica");
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setMaximumPoolSize(maximumPoolSize);
+        replica.setReadOnly(true);
+        log.info("Routing read-only transactions of {} to {}", beanName, url);
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primary, replica));
+    }
+
+    /**
+     * The routing proxy cannot be closed, so both pools are closed here when the DataSource bean is destroyed.
+     */
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        if (replica == null || !(bean instanceof DataSource)) {
+            return;
+        }
+        replica.close();
+        if (primary instanceof HikariDataSource) {
+            ((HikariDataSource) primary).close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.backend.tasks.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps every DataSource bean in a datasource-proxy that feeds {@link StatementStats}.
+ * The proxy hides the pool type from Spring Boot, which only attaches pool metrics to beans that are
+ * HikariDataSource instances, so the Micrometer tracker is attached here before wrapping, also to the pools
+ * behind a {@link ReadOnlyRoutingDataSource}.
+ */
+@Component
+public class StatementCountingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StatementCountingDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        bindPoolMetrics((DataSource) bean);
+        return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                .listener(new StatementCountingListener())
+                .build();
+    }
+
+    private void bindPoolMetrics(DataSource dataSource) {
+        if (dataSource instanceof DelegatingDataSource) {
+            bindPoolMetrics(((DelegatingDataSource) dataSource).getTargetDataSource());
+        } else if (dataSource instanceof ReadOnlyRoutingDataSource) {
+            bindPoolMetrics(((ReadOnlyRoutingDataSource) dataSource).getPrimary());
+            bindPoolMetrics(((ReadOnlyRoutingDataSource) dataSource).getReplica());
+        } else if (dataSource instanceof HikariDataSource) {
+            bindPoolMetrics((HikariDataSource) dataSource);
+        }
+    }
+
+    private void bindPoolMetrics(HikariDataSource hikari) {
+        if (hikari.getMetricRegistry() != null || hikari.getMetricsTrackerFactory() != null) {
+            return;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.backend.tasks.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the JDBC statements and the time spent in them for every request, and logs requests that exceed
+ * the statement or latency budget. Unless disabled, the count is also returned in the X-Db-Statements header.
+ * The header is set when the body starts to be written, so statements run while streaming a body are only logged.
+ * Requests that continue asynchronously are not measured past the servlet thread, and get no header
+ * rather than a partial count.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementCountingFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Db-Statements";
+
+    private final int statementBudget;
+    private final long latencyBudgetMillis;
+    private final boolean statementsHeader;
+
+    public StatementCountingFilter(@Value("${tasks.jdbc.statement-budget:20}") int statementBudget,
+                                   @Value("${tasks.jdbc.latency-budget-ms:500}") long latencyBudgetMillis,
+                                   @Value("${tasks.jdbc.statements-header:true}") boolean statementsHeader) {
+        this.statementBudget = statementBudget;
+        this.latencyBudgetMillis = latencyBudgetMillis;
+        this.statementsHeader = statementsHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        StatementStats stats = StatementStats.begin();
+        StatementsHeaderResponse headerResponse = statementsHeader ? new StatementsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, headerResponse != null ? headerResponse : response);
+        } finally {
+            StatementStats.end();
+            if (headerResponse != null) {
+                if (isAsyncStarted(request)) {
+                    headerResponse.suppressStatementsHeader();
+                } else {
+                    headerResponse.addStatementsHeader();
+                }
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (!isAsyncStarted(request) && (stats.getCount() > statementBudget || millis > latencyBudgetMillis)) {
+                log.warn("{} {} over budget: {} ms, {} statements, {} ms in JDBC",
+                        request.getMethod(), request.getRequestURI(), millis, stats.getCount(), stats.getMillis());
+            }
+        }
+    }
+
+    /**
+     * Adds the header right before anything can commit the response.
+     */
+    private static class StatementsHeaderResponse extends HttpServletResponseWrapper {
+        private final StatementStats stats;
+        private boolean headerAdded;
+
+        StatementsHeaderResponse(HttpServletResponse response, StatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addStatementsHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setHeader(STATEMENTS_HEADER, String.valueOf(stats.getCount()));
+            }
+            headerAdded = true;
+        }
+
+        void suppressStatementsHeader() {
+            headerAdded = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatementsHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatementsHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatementsHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatementsHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatementsHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addStatementsHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.backend.tasks.jdbc;
+
+/**
+ * JDBC statements executed on the current thread between {@link #begin()} and {@link #end()}, usually one HTTP request.
+ * A statement counts once per execute call, so a batch counts as one. Work done on other threads is not seen.
+ */
+public final class StatementStats {
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private long count;
+    private long nanos;
+    private long startedAt;
+
+    private StatementStats() {
+    }
+
+    public static StatementStats begin() {
+        StatementStats stats = new StatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return statistics of the current request, or null outside of one
+     */
+    public static StatementStats current() {
+        return CURRENT.get();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    void statementStarted() {
+        startedAt = System.nanoTime();
+    }
+
+    void statementFinished() {
+        count++;
+        nanos += System.nanoTime() - startedAt;
+    }
+}
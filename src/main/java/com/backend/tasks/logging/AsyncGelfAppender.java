@@ -0,0 +1,249 @@
+package com.backend.tasks.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Logback appender that ships events to Graylog without doing network I/O on the logging thread.
+ * <p>
+ * Events go into a bounded lock-free ring buffer. A single worker thread drains it in batches,
+ * encodes them as GELF and sends them over UDP or TCP. When the buffer is full the overflow policy decides
+ * whether the event is dropped and counted, or the logging thread waits for a free slot.
+ */
+public class AsyncGelfAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    public enum Protocol {
+        UDP,
+        TCP
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private String host = "localhost";
+    private int port = 12201;
+    private Protocol protocol = Protocol.UDP;
+    private String originHost = "localhost";
+    private String facility = "logback";
+    private final Map<String, String> additionalFields = new LinkedHashMap<>();
+    private int queueSize = 8192;
+    private int batchSize = 256;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private long flushIntervalMillis = 10;
+    private long shutdownTimeoutMillis = 1000;
+    private int maxChunkSize = 8192;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private MpscRingBuffer<ILoggingEvent> buffer;
+    private GelfTransport transport;
+    private GelfEncoder encoder;
+    private Thread worker;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        try {
+            buffer = new MpscRingBuffer<>(queueSize);
+            if (transport == null) {
+                transport = createTransport();
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            addError("Cannot start GELF appender [" + name + "] for " + host + ":" + port, e);
+            return;
+        }
+        encoder = new GelfEncoder(originHost, facility, Collections.unmodifiableMap(new LinkedHashMap<>(additionalFields)));
+        running = true;
+        worker = new Thread(this::drainLoop, "gelf-appender-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("GELF appender [" + name + "] stopped with " + buffer.size() + " events not sent");
+        }
+        try {
+            transport.close();
+        } catch (IOException e) {
+            addWarn("Cannot close GELF transport of appender [" + name + "]", e);
+        }
+        transport = null;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (running) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        droppedCount.incrementAndGet();
+    }
+
+    private void drainLoop() {
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        Consumer<ILoggingEvent> encodeIntoBatch = event -> encodeInto(batch, event);
+        long idleParkNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (running || buffer.size() > 0) {
+            buffer.drain(encodeIntoBatch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, idleParkNanos);
+                continue;
+            }
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    private void encodeInto(List<byte[]> batch, ILoggingEvent event) {
+        try {
+            batch.add(encoder.encode(event));
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            addError("Cannot encode logging event as GELF", e);
+        }
+    }
+
+    private void send(List<byte[]> batch) {
+        try {
+            transport.send(batch);
+            sentCount.addAndGet(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failedCount.addAndGet(batch.size());
+            addError("Cannot send " + batch.size() + " GELF messages to " + host + ":" + port, e);
+        }
+    }
+
+    private GelfTransport createTransport() throws IOException {
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        return protocol == Protocol.TCP ? new TcpGelfTransport(address) : new UdpGelfTransport(address, maxChunkSize);
+    }
+
+    /**
+     * Events dropped because the buffer was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Events handed to the transport without an error.
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * Events lost because the transport failed.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public int getQueuedCount() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public void setProtocol(Protocol protocol) {
+        this.protocol = protocol;
+    }
+
+    public void setOriginHost(String originHost) {
+        this.originHost = originHost;
+    }
+
+    public void setFacility(String facility) {
+        this.facility = facility;
+    }
+
+    /**
+     * Extra fields sent with every message, as comma separated {@code key=value} pairs.
+     */
+    public void setAdditionalFields(String additionalFields) {
+        this.additionalFields.clear();
+        for (String field : additionalFields.split(",")) {
+            int separator = field.indexOf('=');
+            if (separator > 0) {
+                this.additionalFields.put(field.substring(0, separator).trim(), field.substring(separator + 1).trim());
+            }
+        }
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    public void setMaxChunkSize(int maxChunkSize) {
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    void setTransport(GelfTransport transport) {
+        this.transport = transport;
+    }
+}
@@ -0,0 +1,83 @@
+package com.backend.tasks.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Turns logging events into GELF 1.1 JSON documents.
+ */
+final class GelfEncoder {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String originHost;
+    private final String facility;
+    private final Map<String, String> additionalFields;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+    GelfEncoder(String originHost, String facility, Map<String, String> additionalFields) {
+        this.originHost = originHost;
+        this.facility = facility;
+        this.additionalFields = additionalFields;
+    }
+
+    /**
+     * Not thread safe: the encoder reuses its buffer and is only used by the appender worker.
+     */
+    byte[] encode(ILoggingEvent event) {
+        buffer.reset();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+            String message = event.getFormattedMessage();
+            generator.writeStartObject();
+            generator.writeStringField("version", "1.1");
+            generator.writeStringField("host", originHost);
+            generator.writeStringField("short_message", shortMessage(message));
+            if (event.getThrowableProxy() != null) {
+                generator.writeStringField("full_message", message + "\n" + ThrowableProxyUtil.asString(event.getThrowableProxy()));
+            } else if (!message.equals(shortMessage(message))) {
+                generator.writeStringField("full_message", message);
+            }
+            generator.writeNumberField("timestamp", BigDecimal.valueOf(event.getTimeStamp(), 3));
+            generator.writeNumberField("level", syslogLevel(event.getLevel()));
+            generator.writeStringField("_facility", facility);
+            generator.writeStringField("_logger", event.getLoggerName());
+            generator.writeStringField("_thread", event.getThreadName());
+            for (Map.Entry<String, String> field : event.getMDCPropertyMap().entrySet()) {
+                generator.writeStringField("_" + field.getKey(), field.getValue());
+            }
+            for (Map.Entry<String, String> field : additionalFields.entrySet()) {
+                generator.writeStringField("_" + field.getKey(), field.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String shortMessage(String message) {
+        int newLine = message.indexOf('\n');
+        return newLine < 0 ? message : message.substring(0, newLine);
+    }
+
+    private static int syslogLevel(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                return 3;
+            case Level.WARN_INT:
+                return 4;
+            case Level.INFO_INT:
+                return 6;
+            default:
+                return 7;
+        }
+    }
+}
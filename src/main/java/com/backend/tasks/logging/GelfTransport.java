@@ -0,0 +1,13 @@
+package com.backend.tasks.logging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Delivers encoded GELF messages to the log collector. Only called from the appender worker thread.
+ */
+interface GelfTransport extends Closeable {
+
+    void send(List<byte[]> messages) throws IOException;
+}
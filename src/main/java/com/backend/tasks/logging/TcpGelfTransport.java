@@ -0,0 +1,60 @@
+package com.backend.tasks.logging;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * GELF over TCP: null-byte delimited messages, written as one buffered batch per call.
+ * The connection is opened lazily and dropped on failure, so the next batch reconnects.
+ */
+final class TcpGelfTransport implements GelfTransport {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InetSocketAddress address;
+    private Socket socket;
+    private OutputStream output;
+
+    TcpGelfTransport(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    @Override
+    public void send(List<byte[]> messages) throws IOException {
+        try {
+            if (socket == null) {
+                connect();
+            }
+            for (byte[] message : messages) {
+                output.write(message);
+                output.write(0);
+            }
+            output.flush();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket newSocket = new Socket();
+        newSocket.setTcpNoDelay(true);
+        newSocket.connect(address, CONNECT_TIMEOUT_MILLIS);
+        socket = newSocket;
+        output = new BufferedOutputStream(newSocket.getOutputStream(), BUFFER_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Socket closing = socket;
+        socket = null;
+        output = null;
+        if (closing != null) {
+            closing.close();
+        }
+    }
+}
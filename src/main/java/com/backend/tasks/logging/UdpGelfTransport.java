@@ -0,0 +1,62 @@
+package com.backend.tasks.logging;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * GELF over UDP: one datagram per message, split into GELF chunks when it exceeds {@code maxChunkSize}.
+ */
+final class UdpGelfTransport implements GelfTransport {
+    static final int CHUNK_HEADER_SIZE = 12;
+    static final int MAX_CHUNKS = 128;
+    private static final byte CHUNK_MAGIC_1 = 0x1e;
+    private static final byte CHUNK_MAGIC_2 = 0x0f;
+
+    private final DatagramChannel channel;
+    private final int maxChunkSize;
+    private final ByteBuffer chunk;
+
+    UdpGelfTransport(InetSocketAddress address, int maxChunkSize) throws IOException {
+        this.channel = DatagramChannel.open();
+        this.channel.connect(address);
+        this.maxChunkSize = maxChunkSize;
+        this.chunk = ByteBuffer.allocate(maxChunkSize);
+    }
+
+    @Override
+    public void send(List<byte[]> messages) throws IOException {
+        for (byte[] message : messages) {
+            if (message.length <= maxChunkSize) {
+                channel.write(ByteBuffer.wrap(message));
+            } else {
+                sendChunked(message);
+            }
+        }
+    }
+
+    private void sendChunked(byte[] message) throws IOException {
+        int payloadSize = maxChunkSize - CHUNK_HEADER_SIZE;
+        int count = (message.length + payloadSize - 1) / payloadSize;
+        if (count > MAX_CHUNKS) {
+            throw new IOException("GELF message of " + message.length + " bytes needs more than " + MAX_CHUNKS + " chunks");
+        }
+        long messageId = ThreadLocalRandom.current().nextLong();
+        for (int sequence = 0; sequence < count; sequence++) {
+            int offset = sequence * payloadSize;
+            chunk.clear();
+            chunk.put(CHUNK_MAGIC_1).put(CHUNK_MAGIC_2).putLong(messageId).put((byte) sequence).put((byte) count);
+            chunk.put(message, offset, Math.min(payloadSize, message.length - offset));
+            chunk.flip();
+            channel.write(chunk);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,19 +1,41 @@
 package com.backend.tasks.mapper;
 
 import com.backend.tasks.dto.OrganizationCreateOrUpdateDto;
+import com.backend.tasks.dto.OrganizationDeletionDto;
+import com.backend.tasks.dto.OrganizationExpandedReadDto;
 import com.backend.tasks.dto.OrganizationReadDto;
 import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.OrganizationDeletion;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.Mappings;
+import org.mapstruct.NullValueCheckStrategy;
 import org.mapstruct.ReportingPolicy;
 import org.mapstruct.factory.Mappers;
 
-@Mapper(unmappedTargetPolicy = ReportingPolicy.WARN)
+@Mapper(unmappedTargetPolicy = ReportingPolicy.WARN, uses = UserMapper.class, nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
 public interface OrganizationMapper {
     OrganizationMapper INSTANCE = Mappers.getMapper(OrganizationMapper.class);
 
     OrganizationReadDto organizationToOrganizationReadDto(Organization organization);
 
+    OrganizationExpandedReadDto organizationToOrganizationExpandedReadDto(Organization organization);
+
     Organization organizationCreateDtoToOrganization(OrganizationCreateOrUpdateDto organizationDto);
 
     Organization organizationCreateOrUpdateDtoToOrganization(OrganizationCreateOrUpdateDto organizationDto);
+
+    /**
+     * Copies the non-null properties of a partial organization onto an existing one.
+     */
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "users", ignore = true),
+            @Mapping(target = "deleting", ignore = true),
+            @Mapping(target = "version", ignore = true)
+    })
+    void updateOrganization(Organization partialOrganization, @MappingTarget Organization organization);
+
+    OrganizationDeletionDto organizationDeletionToOrganizationDeletionDto(OrganizationDeletion deletion);
 }
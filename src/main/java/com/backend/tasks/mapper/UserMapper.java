@@ -2,13 +2,18 @@ package com.backend.tasks.mapper;
 
 import com.backend.tasks.dto.UserCreateDto;
 import com.backend.tasks.dto.UserReadDto;
+import com.backend.tasks.dto.UserSummaryDto;
 import com.backend.tasks.dto.UserUpdateDto;
 import com.backend.tasks.model.User;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.Mappings;
+import org.mapstruct.NullValueCheckStrategy;
 import org.mapstruct.ReportingPolicy;
 import org.mapstruct.factory.Mappers;
 
-@Mapper(unmappedTargetPolicy = ReportingPolicy.WARN)
+@Mapper(unmappedTargetPolicy = ReportingPolicy.WARN, nullValueCheckStrategy = NullValueCheckStrategy.ALWAYS)
 public interface UserMapper {
     UserMapper INSTANCE = Mappers.getMapper(UserMapper.class);
 
@@ -18,4 +23,16 @@ public interface UserMapper {
 
     UserReadDto userToUserReadDto(User user);
 
+    UserSummaryDto userToUserSummaryDto(User user);
+
+    /**
+     * Copies the non-null properties of a partial user onto an existing one.
+     */
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "organization", ignore = true),
+            @Mapping(target = "version", ignore = true)
+    })
+    void updateUser(User partialUser, @MappingTarget User user);
+
 }
@@ -0,0 +1,49 @@
+package com.backend.tasks.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.backend.tasks.logging.AsyncGelfAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the counters of the Graylog appenders attached to the root logger as {@code tasks.logging.gelf.*}.
+ * Binds nothing when the graylog profile is off.
+ */
+@Component
+public class GelfAppenderMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+            return;
+        }
+        Logger root = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(Logger.ROOT_LOGGER_NAME);
+        for (Iterator<Appender<ILoggingEvent>> appenders = root.iteratorForAppenders(); appenders.hasNext(); ) {
+            Appender<ILoggingEvent> appender = appenders.next();
+            if (appender instanceof AsyncGelfAppender) {
+                bind(registry, (AsyncGelfAppender) appender);
+            }
+        }
+    }
+
+    static void bind(MeterRegistry registry, AsyncGelfAppender appender) {
+        String name = appender.getName();
+        FunctionCounter.builder("tasks.logging.gelf.sent", appender, AsyncGelfAppender::getSentCount)
+                .description("Events handed to the transport").tag("appender", name).register(registry);
+        FunctionCounter.builder("tasks.logging.gelf.dropped", appender, AsyncGelfAppender::getDroppedCount)
+                .description("Events dropped because the buffer was full").tag("appender", name).register(registry);
+        FunctionCounter.builder("tasks.logging.gelf.failed", appender, AsyncGelfAppender::getFailedCount)
+                .description("Events lost because the transport failed").tag("appender", name).register(registry);
+        Gauge.builder("tasks.logging.gelf.queued", appender, AsyncGelfAppender::getQueuedCount)
+                .description("Events waiting in the buffer").tag("appender", name).register(registry);
+    }
+}
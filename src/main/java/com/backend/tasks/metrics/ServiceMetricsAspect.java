@@ -0,0 +1,77 @@
+package com.backend.tasks.metrics;
+
+import com.backend.tasks.exceptions.AuthenticationFailedException;
+import com.backend.tasks.exceptions.CustomValidationException;
+import com.backend.tasks.exceptions.ObjectAlreadyExistException;
+import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.exceptions.PreconditionFailedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolationException;
+
+/**
+ * Times every public method of the service implementations as {@code tasks.service}, tagged with the service,
+ * the method and the outcome. Runs outside the transaction, so commit time and commit failures are included.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+    public static final String TIMER_NAME = "tasks.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.backend.tasks.service..*ServiceImpl.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ok";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .tag("service", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    static String outcomeOf(Throwable e) {
+        if (e instanceof ObjectNotFoundException) {
+            return "not_found";
+        }
+        if (e instanceof ObjectAlreadyExistException || e instanceof DataIntegrityViolationException) {
+            return "conflict";
+        }
+        if (e instanceof CustomValidationException || e instanceof ConstraintViolationException) {
+            return "validation";
+        }
+        if (e instanceof PreconditionFailedException || e instanceof OptimisticLockingFailureException) {
+            return "precondition_failed";
+        }
+        if (e instanceof AuthenticationFailedException) {
+            return "unauthorized";
+        }
+        if (e instanceof TaskRejectedException) {
+            return "rejected";
+        }
+        return "error";
+    }
+}
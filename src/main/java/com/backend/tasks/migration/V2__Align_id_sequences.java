@@ -0,0 +1,63 @@
+package com.backend.tasks.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves the per-entity id sequences past ids already present in their tables, so data written
+ * while ids came from the shared hibernate_sequence does not collide with newly allocated blocks.
+ * Does nothing on a schema created by V1; it matters for schemas adopted through the Flyway baseline,
+ * which predate the sequences and get them created here. Only ever moves a sequence forward.
+ */
+@Slf4j
+public class V2__Align_id_sequences implements JdbcMigration {
+
+    /**
+     * Must match tasks.id.increment_size and the sequences created by V1.
+     */
+    private static final int INCREMENT_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCES.put("organization_seq", "organization");
+        SEQUENCES.put("user_seq", "user");
+    }
+
+    @Override
+    public void migrate(Connection connection) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        SEQUENCES.forEach((sequence, table) -> align(jdbcTemplate, sequence, table));
+    }
+
+    private void align(JdbcTemplate jdbcTemplate, String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        long startWith = maxId == null ? 1 : maxId + 1;
+        if (!exists(jdbcTemplate, sequence)) {
+            jdbcTemplate.execute("create sequence " + sequence + " start with " + startWith + " increment by " + INCREMENT_SIZE);
+            log.info("Sequence {} created starting with {} to follow existing {} ids", sequence, startWith, table);
+            return;
+        }
+        if (maxId == null) {
+            return;
+        }
+        Long nextValue = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        if (nextValue != null && nextValue > maxId) {
+            return;
+        }
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (maxId + 1));
+        log.info("Sequence {} restarted with {} to follow existing {} ids", sequence, maxId + 1, table);
+    }
+
+    private boolean exists(JdbcTemplate jdbcTemplate, String sequence) {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from information_schema.sequences where sequence_name = ?",
+                Integer.class, sequence.toUpperCase());
+        return count != null && count > 0;
+    }
+}
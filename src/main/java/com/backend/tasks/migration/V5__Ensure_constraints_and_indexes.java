@@ -0,0 +1,46 @@
+package com.backend.tasks.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+
+/**
+ * Adds the unique constraints and indexes of V1 that are missing. Does nothing on a schema created by V1;
+ * schemas adopted through the Flyway baseline never ran V1, and without the unique constraints they would
+ * silently accept duplicate names. Fails when the adopted data already holds duplicates, which have to be
+ * resolved by hand before migrating.
+ */
+@Slf4j
+public class V5__Ensure_constraints_and_indexes implements JdbcMigration {
+
+    @Override
+    public void migrate(Connection connection) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        ensureConstraint(jdbcTemplate, "uk_organization_name", "alter table organization add constraint uk_organization_name unique (name)");
+        ensureConstraint(jdbcTemplate, "uk_user_org_id_username", "alter table user add constraint uk_user_org_id_username unique (org_id, username)");
+        ensureIndex(jdbcTemplate, "idx_user_username", "create index idx_user_username on user (username)");
+        ensureIndex(jdbcTemplate, "idx_user_org_id_id", "create index idx_user_org_id_id on user (org_id, id)");
+    }
+
+    private void ensureConstraint(JdbcTemplate jdbcTemplate, String name, String ddl) {
+        if (!exists(jdbcTemplate, "select count(*) from information_schema.constraints where constraint_name = ?", name)) {
+            jdbcTemplate.execute(ddl);
+            log.info("Constraint {} added", name);
+        }
+    }
+
+    private void ensureIndex(JdbcTemplate jdbcTemplate, String name, String ddl) {
+        if (!exists(jdbcTemplate, "select count(*) from information_schema.indexes where index_name = ?", name)) {
+            jdbcTemplate.execute(ddl);
+            log.info("Index {} added", name);
+        }
+    }
+
+    private boolean exists(JdbcTemplate jdbcTemplate, String sql, String name) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, name.toUpperCase());
+        return count != null && count > 0;
+    }
+}
@@ -2,9 +2,12 @@ package com.backend.tasks.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
-import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -15,12 +18,29 @@ import java.util.Set;
 @Setter
 @Getter
 @Entity
+@DynamicUpdate
+@Table(uniqueConstraints = @UniqueConstraint(name = Organization.NAME_CONSTRAINT, columnNames = "name"))
 public class Organization {
+    public static final String NAME_CONSTRAINT = "uk_organization_name";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organization_seq")
+    @GenericGenerator(name = "organization_seq", strategy = "com.backend.tasks.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "organization_seq"))
     private Long id;
     private String name;
 
+    /**
+     * Set while a background deletion removes the users; such an organization is no longer readable.
+     */
+    private boolean deleting;
+
+    /**
+     * Incremented on every update, checked by Hibernate on flush and returned as the ETag.
+     */
+    @Version
+    private Long version;
+
     /**
      * Map organization with users.
      * Use OneToMany association and map by organization field in User class.
@@ -29,17 +49,22 @@ public class Organization {
     @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, mappedBy = "organization")
     private Set<User> users;
 
+    /**
+     * Same id semantics as {@link User#equals}: the users collection is never touched.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof Organization)) return false;
         Organization that = (Organization) o;
-        return Objects.equals(id, that.id) &&
-                Objects.equals(name, that.name);
+        return id != null && id.equals(that.getId());
     }
 
+    /**
+     * Same constant hash as {@link User#hashCode}: set membership survives persist.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id, name);
+        return Organization.class.hashCode();
     }
 }
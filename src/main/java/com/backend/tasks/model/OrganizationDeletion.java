@@ -0,0 +1,42 @@
+package com.backend.tasks.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Background deletion job of an organization. The organization row is gone once the job is completed,
+ * so it is referenced by id only.
+ */
+@Getter
+@Setter
+@Entity
+@Table(indexes = @Index(name = "idx_organization_deletion_status", columnList = "status"))
+public class OrganizationDeletion {
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "organization_deletion_seq")
+    @GenericGenerator(name = "organization_deletion_seq", strategy = "com.backend.tasks.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "organization_deletion_seq"))
+    private Long id;
+
+    @Column(name = "org_id")
+    private Long orgId;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private long totalUsers;
+    private long deletedUsers;
+    private String errorMessage;
+    private Instant createdAt;
+    private Instant finishedAt;
+}
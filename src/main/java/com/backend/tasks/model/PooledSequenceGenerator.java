@@ -0,0 +1,33 @@
+package com.backend.tasks.model;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator with the pooled-lo optimizer: one sequence call reserves a block of ids,
+ * so inserts do not need a database round trip each and can be sent in JDBC batches.
+ * The block size is taken from the {@value #INCREMENT_SIZE_SETTING} JPA property unless the mapping sets it.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String INCREMENT_SIZE_SETTING = "tasks.id.increment_size";
+    public static final int DEFAULT_INCREMENT_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        if (!params.containsKey(INCREMENT_PARAM)) {
+            Object incrementSize = serviceRegistry.getService(ConfigurationService.class)
+                    .getSettings().get(INCREMENT_SIZE_SETTING);
+            params.setProperty(INCREMENT_PARAM, incrementSize == null ? String.valueOf(DEFAULT_INCREMENT_SIZE) : incrementSize.toString());
+        }
+        if (!params.containsKey(OPT_PARAM)) {
+            params.setProperty(OPT_PARAM, "pooled-lo");
+        }
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -2,9 +2,12 @@ package com.backend.tasks.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
-import java.util.Objects;
 
 /**
  * Implement entity:
@@ -14,13 +17,29 @@ import java.util.Objects;
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
+@Table(uniqueConstraints = @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = {"org_id", "username"}),
+        indexes = {
+                @Index(name = "idx_user_username", columnList = "username"),
+                @Index(name = "idx_user_org_id_id", columnList = "org_id, id")
+        })
 public class User {
+    public static final String USERNAME_CONSTRAINT = "uk_user_org_id_username";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @GenericGenerator(name = "user_seq", strategy = "com.backend.tasks.model.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"))
     private Long id;
     private String username;
     private String password;
 
+    /**
+     * Incremented on every update, checked by Hibernate on flush and returned as the ETag.
+     */
+    @Version
+    private Long version;
+
     /**
      * Map user with organization by org_id field.
      * Use ManyToOne association.
@@ -30,18 +49,26 @@ public class User {
     private Organization organization;
 
 
+    /**
+     * Users are equal when they have the same id; a user without id only equals itself.
+     * The organization is never touched, so no lazy association is loaded.
+     * The id is read through the getter, which a Hibernate proxy answers without initializing.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof User)) return false;
         User user = (User) o;
-        return Objects.equals(id, user.id) &&
-                Objects.equals(username, user.username) &&
-                Objects.equals(organization, user.organization);
+        return id != null && id.equals(user.getId());
     }
 
+    /**
+     * The same for every user, so a new user keeps its hash when persist assigns the id
+     * and stays findable in a hash-based collection. The class literal rather than getClass()
+     * keeps a Hibernate proxy hashed like the user it stands for.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id, username, organization);
+        return User.class.hashCode();
     }
 }
@@ -0,0 +1,31 @@
+package com.backend.tasks.repository;
+
+import com.backend.tasks.model.OrganizationDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrganizationDeletionRepository extends JpaRepository<OrganizationDeletion, Long> {
+    List<OrganizationDeletion> findByStatus(OrganizationDeletion.Status status);
+
+    OrganizationDeletion findFirstByOrgIdAndStatusOrderByIdDesc(Long orgId, OrganizationDeletion.Status status);
+
+    /**
+     * Sets a failed job running again, unless another request already did.
+     *
+     * @return number of updated rows
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update OrganizationDeletion d set d.status = 'RUNNING', d.errorMessage = null, d.finishedAt = null "
+            + "where d.id = :id and d.status = 'FAILED'")
+    int restartFailed(@Param("id") Long id);
+
+    @Modifying
+    @Query("update OrganizationDeletion d set d.deletedUsers = d.deletedUsers + :count where d.id = :id")
+    int addDeletedUsers(@Param("id") Long id, @Param("count") long count);
+}
@@ -1,10 +1,39 @@
 package com.backend.tasks.repository;
 
 import com.backend.tasks.model.Organization;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
     Organization findByName(String name);
+
+    Slice<Organization> findByIdGreaterThanAndDeletingFalseOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select o from Organization o left join fetch o.users where o.id = :id and o.deleting = false")
+    Organization findWithUsersById(@Param("id") Long id);
+
+    @Query("select distinct o from Organization o left join fetch o.users where o.id in :ids order by o.id")
+    List<Organization> findWithUsersByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Hides the organization from reads until {@link #deleteDeletingOrganizationById} removes it.
+     *
+     * @return number of updated rows, 0 when the organization does not exist or is already being deleted
+     */
+    @Modifying
+    @Query("update Organization o set o.deleting = true where o.id = :id and o.deleting = false")
+    int markDeleting(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Organization o where o.id = :id and o.deleting = true")
+    int deleteDeletingOrganizationById(@Param("id") Long id);
 }
@@ -0,0 +1,10 @@
+package com.backend.tasks.repository;
+
+/**
+ * Id and stored password of a user, read without loading the entity.
+ */
+public interface UserCredentials {
+    Long getId();
+
+    String getPassword();
+}
@@ -1,18 +1,97 @@
 package com.backend.tasks.repository;
 
 import com.backend.tasks.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
 
-    User findByUsernameAndOrganizationId(String username, Long orgId);
+    /**
+     * Only the id and password columns, for authentication.
+     */
+    @Query("select u.id as id, u.password as password from User u "
+            + "where u.username = :username and u.organization.id = :orgId")
+    UserCredentials findByUsernameAndOrganizationId(@Param("username") String username, @Param("orgId") Long orgId);
+
+    /**
+     * Replaces the password unless it has been changed since it was read.
+     *
+     * @return number of updated rows
+     */
+    @Modifying
+    @Query("update User u set u.password = :password, u.version = u.version + 1 "
+            + "where u.id = :userId and u.password = :oldPassword")
+    int updatePasswordByIdAndPassword(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                                      @Param("password") String password);
+
+    @Query("select u.username from User u where u.organization.id = :orgId and u.username in :usernames")
+    List<String> findUsernamesByOrganizationIdAndUsernameIn(@Param("orgId") Long orgId,
+                                                           @Param("usernames") Collection<String> usernames);
 
     User findByIdAndOrganizationId(Long userId, Long orgId);
 
-    List<User> findByOrganizationId(Long orgId);
+    /**
+     * Version of the user without loading it, for conditional GETs.
+     */
+    @Query("select u.version from User u where u.id = :userId and u.organization.id = :orgId")
+    Long findVersionByIdAndOrganizationId(@Param("userId") Long userId, @Param("orgId") Long orgId);
+
+    /**
+     * Spelled out because the derived query outer-joins organization and filters on the joined id, which H2 plans as a
+     * scan of the whole user table instead of using the org_id index.
+     */
+    @Query("select u from User u where u.organization.id = :orgId")
+    List<User> findByOrganizationId(@Param("orgId") Long orgId);
+
+    Slice<User> findByOrganizationIdAndIdGreaterThanOrderByIdAsc(Long orgId, Long afterId, Pageable pageable);
+
+    /**
+     * Forward-only cursor over all users of the organization. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select u from User u where u.organization.id = :orgId order by u.id")
+    Stream<User> streamByOrganizationId(@Param("orgId") Long orgId);
+
+    @Query("select count(u) from User u where u.organization.id = :orgId")
+    long countByOrganizationId(@Param("orgId") Long orgId);
+
+    /**
+     * First ids of the organization's users in id order, a chunk for {@link #deleteByIdIn}.
+     */
+    @Query("select u.id from User u where u.organization.id = :orgId order by u.id")
+    List<Long> findIdsByOrganizationId(@Param("orgId") Long orgId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Single DELETE for all users of the organization, bypassing the per-entity cascade of Organization.users.
+     */
+    @Modifying
+    @Query("delete from User u where u.organization.id = :orgId")
+    int deleteByOrganizationId(@Param("orgId") Long orgId);
+
+    /**
+     * @return number of deleted rows, 0 when the user does not exist in the organization
+     */
+    @Modifying
+    @Query("delete from User u where u.id = :userId and u.organization.id = :orgId")
+    int deleteByIdAndOrganizationId(@Param("userId") Long userId, @Param("orgId") Long orgId);
 }
@@ -0,0 +1,17 @@
+package com.backend.tasks.service.org;
+
+import com.backend.tasks.model.OrganizationDeletion;
+
+/**
+ * Deletes organizations with many users in the background, without one long transaction over all of them.
+ */
+public interface OrganizationDeletionService {
+    /**
+     * Marks the organization as deleting, which makes it not found for reads right away, and schedules
+     * the removal of its users in chunks once the current transaction commits.
+     * For an organization left deleting by a FAILED job, restarts that job instead.
+     */
+    OrganizationDeletion start(Long orgId);
+
+    OrganizationDeletion find(Long deletionId);
+}
@@ -1,17 +1,37 @@
 package com.backend.tasks.service.org;
 
 import com.backend.tasks.model.Organization;
-
-import java.util.List;
+import org.springframework.data.domain.Slice;
 
 public interface OrganizationService {
     Organization create(Organization organization);
 
     Organization findById(Long id);
 
+    /**
+     * Same as {@link #findById(Long)} with users fetched in the same query.
+     */
+    Organization findByIdWithUsers(Long id);
+
+    /**
+     * Copies the non-null properties onto the stored organization. A non-null version must be the current one.
+     *
+     * @throws com.backend.tasks.exceptions.PreconditionFailedException when the version is not the current one
+     */
     Organization update(Organization organization);
 
     void delete(Long orgId);
 
-    List<Organization> findAll();
+    /**
+     * Keyset page of organizations ordered by id.
+     *
+     * @param afterId id of the last organization of the previous page, null for the first page
+     * @param limit   maximum page size
+     */
+    Slice<Organization> findAll(Long afterId, int limit);
+
+    /**
+     * Same as {@link #findAll(Long, int)} with users of the whole page fetched in one additional query.
+     */
+    Slice<Organization> findAllWithUsers(Long afterId, int limit);
 }
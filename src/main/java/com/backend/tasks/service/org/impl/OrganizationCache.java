@@ -0,0 +1,82 @@
+package com.backend.tasks.service.org.impl;
+
+import com.backend.tasks.model.Organization;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of organizations by id.
+ * Only found organizations are cached. Entries are detached snapshots holding id, name and version,
+ * and every read returns a fresh copy, so callers never share a managed entity or each other's changes.
+ * Name uniqueness is checked by the database, never against this cache.
+ * Hit, miss and eviction counts are published as cache.* metrics tagged cache=organizations.
+ */
+@Component
+public class OrganizationCache implements MeterBinder {
+    private final Cache<Long, Organization> byId;
+
+    public OrganizationCache(@Value("${tasks.cache.organizations.maximum-size:10000}") long maximumSize,
+                             @Value("${tasks.cache.organizations.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public Organization getById(Long id, Function<Long, Organization> loader) {
+        return copyOf(byId.get(id, key -> copyOf(loader.apply(key))));
+    }
+
+    /**
+     * Drops the entry now and again when the current transaction completes,
+     * so a concurrent read cannot re-cache the state that is being replaced.
+     */
+    public void evict(Long id) {
+        byId.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    byId.invalidate(id);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        byId.invalidateAll();
+    }
+
+    public CacheStats byIdStats() {
+        return byId.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(byId, "organizations", Tags.empty()).bindTo(registry);
+    }
+
+    private static Organization copyOf(Organization organization) {
+        if (organization == null) {
+            return null;
+        }
+        Organization copy = new Organization();
+        copy.setId(organization.getId());
+        copy.setName(organization.getName());
+        copy.setVersion(organization.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,173 @@
+package com.backend.tasks.service.org.impl;
+
+import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.model.OrganizationDeletion;
+import com.backend.tasks.repository.OrganizationDeletionRepository;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.OrganizationDeletionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Every chunk of users is deleted and counted in its own transaction, so locks are held for one chunk only and
+ * the progress is visible while the job runs. Jobs interrupted by a shutdown stay RUNNING and are resumed on startup.
+ * A FAILED job leaves its organization deleting; starting the deletion again restarts that job.
+ */
+@Slf4j
+@Service
+public class OrganizationDeletionServiceImpl implements OrganizationDeletionService {
+    private static final int ERROR_MESSAGE_LENGTH = 1024;
+
+    private final OrganizationRepository organizationRepository;
+    private final UserRepository userRepository;
+    private final OrganizationDeletionRepository organizationDeletionRepository;
+    private final OrganizationCache organizationCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public OrganizationDeletionServiceImpl(OrganizationRepository organizationRepository,
+                                           UserRepository userRepository,
+                                           OrganizationDeletionRepository organizationDeletionRepository,
+                                           OrganizationCache organizationCache,
+                                           TransactionTemplate transactionTemplate,
+                                           @Qualifier("organizationDeletionExecutor") Executor executor,
+                                           @Value("${tasks.deletion.chunk-size:1000}") int chunkSize) {
+        this.organizationRepository = organizationRepository;
+        this.userRepository = userRepository;
+        this.organizationDeletionRepository = organizationDeletionRepository;
+        this.organizationCache = organizationCache;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    @Override
+    public OrganizationDeletion start(Long orgId) {
+        organizationCache.evict(orgId);
+        OrganizationDeletion deletion = organizationRepository.markDeleting(orgId) > 0 ? create(orgId) : restartFailed(orgId);
+        if (deletion == null) {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization", orgId);
+            log.error(notFoundException.getMessage());
+            throw notFoundException;
+        }
+
+        Long deletionId = deletion.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                submit(deletionId, orgId);
+            }
+        });
+        log.info("Deletion {} of organization {} with {} users started", deletionId, orgId, deletion.getTotalUsers());
+        return deletion;
+    }
+
+    private OrganizationDeletion create(Long orgId) {
+        OrganizationDeletion deletion = new OrganizationDeletion();
+        deletion.setOrgId(orgId);
+        deletion.setStatus(OrganizationDeletion.Status.RUNNING);
+        deletion.setTotalUsers(userRepository.countByOrganizationId(orgId));
+        deletion.setCreatedAt(Instant.now());
+        return organizationDeletionRepository.save(deletion);
+    }
+
+    /**
+     * @return the restarted job, null when the organization has no failed job to restart
+     */
+    private OrganizationDeletion restartFailed(Long orgId) {
+        OrganizationDeletion failed = organizationDeletionRepository.findFirstByOrgIdAndStatusOrderByIdDesc(
+                orgId, OrganizationDeletion.Status.FAILED);
+        if (failed == null || organizationDeletionRepository.restartFailed(failed.getId()) == 0) {
+            return null;
+        }
+        log.info("Restarting failed deletion {} of organization {}", failed.getId(), orgId);
+        return organizationDeletionRepository.findById(failed.getId()).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public OrganizationDeletion find(Long deletionId) {
+        return organizationDeletionRepository.findById(deletionId).orElseThrow(() -> {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization deletion", deletionId);
+            log.error(notFoundException.getMessage());
+            return notFoundException;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeRunning() {
+        List<OrganizationDeletion> running = organizationDeletionRepository.findByStatus(OrganizationDeletion.Status.RUNNING);
+        for (OrganizationDeletion deletion : running) {
+            log.info("Resuming deletion {} of organization {}", deletion.getId(), deletion.getOrgId());
+            submit(deletion.getId(), deletion.getOrgId());
+        }
+    }
+
+    private void submit(Long deletionId, Long orgId) {
+        executor.execute(() -> run(deletionId, orgId));
+    }
+
+    private void run(Long deletionId, Long orgId) {
+        try {
+            int deleted;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Deletion {} of organization {} interrupted, it is resumed on the next startup", deletionId, orgId);
+                    return;
+                }
+                deleted = transactionTemplate.execute(status -> deleteChunk(deletionId, orgId));
+            } while (deleted > 0);
+            transactionTemplate.execute(status -> {
+                organizationRepository.deleteDeletingOrganizationById(orgId);
+                finish(deletionId, OrganizationDeletion.Status.COMPLETED, null);
+                return null;
+            });
+            log.info("Deletion {} of organization {} completed", deletionId, orgId);
+        } catch (RuntimeException e) {
+            log.error("Deletion {} of organization {} failed", deletionId, orgId, e);
+            transactionTemplate.execute(status -> {
+                finish(deletionId, OrganizationDeletion.Status.FAILED, errorMessage(e));
+                return null;
+            });
+        }
+    }
+
+    private int deleteChunk(Long deletionId, Long orgId) {
+        List<Long> ids = userRepository.findIdsByOrganizationId(orgId, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = userRepository.deleteByIdIn(ids);
+        organizationDeletionRepository.addDeletedUsers(deletionId, deleted);
+        return deleted;
+    }
+
+    private static String errorMessage(RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        return message.length() > ERROR_MESSAGE_LENGTH ? message.substring(0, ERROR_MESSAGE_LENGTH) : message;
+    }
+
+    private void finish(Long deletionId, OrganizationDeletion.Status status, String errorMessage) {
+        organizationDeletionRepository.findById(deletionId).ifPresent(deletion -> {
+            deletion.setStatus(status);
+            deletion.setErrorMessage(errorMessage);
+            deletion.setFinishedAt(Instant.now());
+        });
+    }
+}
@@ -1,81 +1,152 @@
 package com.backend.tasks.service.org.impl;
 
+import com.backend.tasks.ConstraintUtils;
 import com.backend.tasks.exceptions.CustomValidationException;
 import com.backend.tasks.exceptions.ObjectAlreadyExistException;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.exceptions.PreconditionFailedException;
+import com.backend.tasks.mapper.OrganizationMapper;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
 import com.backend.tasks.service.org.OrganizationService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 @Slf4j
 @Service
 public class OrganizationServiceImpl implements OrganizationService {
     private final OrganizationRepository organizationRepository;
+    private final UserRepository userRepository;
+    private final OrganizationCache organizationCache;
+    private final TransactionTemplate cacheLoadTransaction;
 
-    public OrganizationServiceImpl(OrganizationRepository organizationRepository) {
+    public OrganizationServiceImpl(OrganizationRepository organizationRepository, UserRepository userRepository,
+                                   OrganizationCache organizationCache, PlatformTransactionManager transactionManager) {
         this.organizationRepository = organizationRepository;
+        this.userRepository = userRepository;
+        this.organizationCache = organizationCache;
+        this.cacheLoadTransaction = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
     @Override
     public Organization create(Organization organization) {
-        Organization organizationByName = organizationRepository.findByName(organization.getName());
-        if (organizationByName != null) {
+        try {
+            return organizationRepository.saveAndFlush(organization);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintUtils.isViolated(e, Organization.NAME_CONSTRAINT)) {
+                throw e;
+            }
             log.error("Organization with such name: {} already exist", organization.getName());
-            throw new ObjectAlreadyExistException("User", organization.getName());
+            throw new ObjectAlreadyExistException("Organization", organization.getName());
         }
-        return organizationRepository.save(organization);
     }
 
-    @Transactional
+    /**
+     * Call before opening a transaction. A cache miss is then loaded in a read-write transaction of its own, which
+     * uses the primary database: a copy read from a lagging replica would stay cached well past the replication lag.
+     * Inside a caller's transaction the miss joins it instead, so no second connection is taken while the caller
+     * holds one.
+     */
     @Override
     public Organization findById(Long id) {
-        Optional<Organization> organizationOpt = organizationRepository.findById(id);
-        if (!organizationOpt.isPresent()) {
+        Organization organization = organizationCache.getById(id,
+                key -> cacheLoadTransaction.execute(status -> findReadable(key).orElse(null)));
+        if (organization == null) {
             ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization", id);
             log.error(notFoundException.getMessage());
             throw notFoundException;
         }
-        return organizationOpt.orElse(null);
+        return organization;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Organization findByIdWithUsers(Long id) {
+        Organization organization = organizationRepository.findWithUsersById(id);
+        if (organization == null) {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization", id);
+            log.error(notFoundException.getMessage());
+            throw notFoundException;
+        }
+        return organization;
     }
 
     @Transactional
     @Override
     public Organization update(Organization organization) {
         Long organizationId = organization.getId();
-        Optional<Organization> organizationOpt = organizationRepository.findById(organizationId);
+        Optional<Organization> organizationOpt = findReadable(organizationId);
         if (!organizationOpt.isPresent()) {
             ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization", organizationId);
             log.error(notFoundException.getMessage());
             throw notFoundException;
         }
-        if (!organizationOpt.get().getName().equals(organization.getName())) {
-            Organization organizationByName = organizationRepository.findByName(organization.getName());
-            if (!Objects.isNull(organizationByName)) {
-                throw new CustomValidationException("Organization with  such name already exist:" + organizationByName.getName());
+        Organization existingOrganization = organizationOpt.get();
+        if (organization.getVersion() != null && !organization.getVersion().equals(existingOrganization.getVersion())) {
+            throw new PreconditionFailedException("Organization[" + organizationId + "] has version "
+                    + existingOrganization.getVersion() + ", not " + organization.getVersion());
+        }
+        organizationCache.evict(organizationId);
+        OrganizationMapper.INSTANCE.updateOrganization(organization, existingOrganization);
+        try {
+            return organizationRepository.saveAndFlush(existingOrganization);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintUtils.isViolated(e, Organization.NAME_CONSTRAINT)) {
+                throw e;
             }
+            throw new CustomValidationException("Organization with  such name already exist:" + organization.getName());
         }
-
-        return organizationRepository.save(organization);
     }
 
     @Transactional
     @Override
     public void delete(Long orgId) {
-        Organization organization = findById(orgId);
-        organizationRepository.deleteById(organization.getId());
+        organizationCache.evict(orgId);
+        // claims the row first, so a missing or deleting organization is not found before any user is touched
+        if (organizationRepository.markDeleting(orgId) == 0) {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("Organization", orgId);
+            log.error(notFoundException.getMessage());
+            throw notFoundException;
+        }
+        userRepository.deleteByOrganizationId(orgId);
+        organizationRepository.deleteDeletingOrganizationById(orgId);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public List<Organization> findAll() {
-        return organizationRepository.findAll();
+    public Slice<Organization> findAll(Long afterId, int limit) {
+        Long fromId = afterId == null ? Long.MIN_VALUE : afterId;
+        return organizationRepository.findByIdGreaterThanAndDeletingFalseOrderByIdAsc(fromId, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<Organization> findAllWithUsers(Long afterId, int limit) {
+        Slice<Organization> organizations = findAll(afterId, limit);
+        if (!organizations.hasContent()) {
+            return organizations;
+        }
+        List<Long> ids = organizations.map(Organization::getId).getContent();
+        List<Organization> organizationsWithUsers = organizationRepository.findWithUsersByIdIn(ids);
+        return new SliceImpl<>(organizationsWithUsers, organizations.getPageable(), organizations.hasNext());
+    }
+
+    /**
+     * Organizations being deleted in the background are not found.
+     */
+    private Optional<Organization> findReadable(Long id) {
+        return organizationRepository.findById(id).filter(organization -> !organization.isDeleting());
     }
 }
@@ -0,0 +1,26 @@
+package com.backend.tasks.service.password;
+
+import java.util.List;
+
+/**
+ * One-way password hashing. Hashing and verification are CPU heavy by design, so they run on a dedicated bounded
+ * executor: they never occupy more threads than it has, and requests beyond its queue are rejected.
+ */
+public interface PasswordService {
+    String hash(String rawPassword);
+
+    /**
+     * Hashes the passwords in parallel on the executor, submitting only a bounded window of them at a time.
+     *
+     * @return the hashes, in the order of the given passwords
+     */
+    List<String> hashAll(List<String> rawPasswords);
+
+    boolean matches(String rawPassword, String storedPassword);
+
+    /**
+     * @return true when the stored password was hashed with other cost parameters than the configured ones,
+     * or was stored before passwords were hashed
+     */
+    boolean needsRehash(String storedPassword);
+}
@@ -0,0 +1,102 @@
+package com.backend.tasks.service.password.impl;
+
+import com.backend.tasks.service.password.PasswordService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt with a configurable cost (log2 of the key expansion rounds). Passwords stored in plain text before hashing
+ * was introduced are still accepted, and are reported by {@link #needsRehash} like hashes of an outdated cost.
+ * {@link #hashAll} keeps at most bulk-window hashes queued, so a bulk create leaves the executor queue to
+ * concurrent single hashes and checks.
+ */
+@Slf4j
+@Service
+public class PasswordServiceImpl implements PasswordService {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final Executor executor;
+    private final int cost;
+    private final int bulkWindow;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordServiceImpl(@Qualifier("passwordHashingExecutor") Executor executor,
+                               @Value("${tasks.password.bcrypt-cost:10}") int cost,
+                               @Value("${tasks.password.bulk-window:4}") int bulkWindow) {
+        this.executor = executor;
+        this.cost = cost;
+        this.bulkWindow = Math.max(1, bulkWindow);
+        this.encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    @Override
+    public String hash(String rawPassword) {
+        return join(submit(() -> encoder.encode(rawPassword)));
+    }
+
+    @Override
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        List<String> result = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            if (hashes.size() - result.size() == bulkWindow) {
+                result.add(join(hashes.get(result.size())));
+            }
+            hashes.add(submit(() -> encoder.encode(rawPassword)));
+        }
+        while (result.size() < hashes.size()) {
+            result.add(join(hashes.get(result.size())));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!BCRYPT_HASH.matcher(storedPassword).matches()) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return join(submit(() -> encoder.matches(rawPassword, storedPassword)));
+    }
+
+    @Override
+    public boolean needsRehash(String storedPassword) {
+        Matcher hash = BCRYPT_HASH.matcher(storedPassword);
+        return !hash.matches() || Integer.parseInt(hash.group(1)) != cost;
+    }
+
+    /**
+     * @throws org.springframework.core.task.TaskRejectedException when the executor queue is full
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
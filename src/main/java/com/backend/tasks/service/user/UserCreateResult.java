@@ -0,0 +1,23 @@
+package com.backend.tasks.service.user;
+
+import com.backend.tasks.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of one item of a bulk user creation.
+ */
+@Getter
+@AllArgsConstructor
+public class UserCreateResult {
+    private final User user;
+    private final boolean created;
+
+    public static UserCreateResult created(User user) {
+        return new UserCreateResult(user, true);
+    }
+
+    public static UserCreateResult conflict(User user) {
+        return new UserCreateResult(user, false);
+    }
+}
@@ -1,18 +1,65 @@
 package com.backend.tasks.service.user;
 
 import com.backend.tasks.model.User;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+/**
+ * Reads of users check their organization first, through the organization cache, so the users of an organization
+ * that does not exist or is being deleted in the background are not found either.
+ */
 public interface UserService {
 
     User create(User user, Long orgId);
 
+    /**
+     * Creates all users whose username is free in the organization, in JDBC batches.
+     * Usernames taken in the organization or repeated in the list are reported as conflicts.
+     *
+     * @return one result per user, in the order of the given list
+     */
+    List<UserCreateResult> createAll(List<User> users, Long orgId);
+
     User find(Long userId, Long orgId);
 
+    /**
+     * Version of the user, read without loading it.
+     */
+    Long findVersion(Long userId, Long orgId);
+
+    /**
+     * Copies the non-null properties onto the stored user. A non-null version must be the current one.
+     *
+     * @throws com.backend.tasks.exceptions.PreconditionFailedException when the version is not the current one
+     */
     User update(User user, Long orgId);
 
+    /**
+     * Checks the credentials of a user of the organization, reading only the id and the stored password.
+     * Usernames found unknown are remembered for a short while, so retrying them does not reach the database.
+     * A matching password stored with outdated cost parameters is rehashed with the current ones.
+     *
+     * @return id of the user
+     * @throws com.backend.tasks.exceptions.AuthenticationFailedException when the username is unknown
+     * or the password does not match
+     */
+    Long authenticate(String username, String rawPassword, Long orgId);
+
     void delete(Long userId, Long orgId);
 
-    List<User> findAllByOrgId(Long orgId);
+    /**
+     * Keyset page of organization users ordered by id.
+     *
+     * @param afterId id of the last user of the previous page, null for the first page
+     * @param limit   maximum page size
+     */
+    Slice<User> findAllByOrgId(Long orgId, Long afterId, int limit);
+
+    /**
+     * Passes every user of the organization to the consumer, reading them from a database cursor.
+     * Users are detached after the consumer returns, so memory use does not grow with the organization size.
+     */
+    void exportAllByOrgId(Long orgId, Consumer<User> consumer);
 }
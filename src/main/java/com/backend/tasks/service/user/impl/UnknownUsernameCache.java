@@ -0,0 +1,109 @@
+package com.backend.tasks.service.user.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, short lived cache of usernames that do not exist in an organization, so that repeated
+ * authentication attempts with unknown usernames do not reach the database.
+ * Every username hashes to one of a fixed number of stamps, which {@link #evict} bumps. A lookup takes the stamp
+ * before it reads and passes it to {@link #putUnknown}, so a lookup that overlapped the creation of the user
+ * does not cache it as unknown.
+ * Hit, miss and eviction counts are published as cache.* metrics tagged cache=unknown_usernames.
+ */
+@Component
+public class UnknownUsernameCache implements MeterBinder {
+    private static final int STAMPS = 1024;
+
+    private final Cache<String, Boolean> unknown;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMPS);
+
+    public UnknownUsernameCache(@Value("${tasks.cache.unknown-usernames.maximum-size:100000}") long maximumSize,
+                                @Value("${tasks.cache.unknown-usernames.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isUnknown(Long orgId, String username) {
+        return unknown.getIfPresent(key(orgId, username)) != null;
+    }
+
+    /**
+     * @return the stamp to pass to {@link #putUnknown}, taken before the username is looked up
+     */
+    public long stamp(Long orgId, String username) {
+        return stamps.get(stampIndex(key(orgId, username)));
+    }
+
+    /**
+     * Caches the username as unknown unless it was evicted since the stamp was taken. The stamp is checked again
+     * after the put, so an eviction between the check and the put still removes the entry.
+     */
+    public void putUnknown(Long orgId, String username, long stamp) {
+        String key = key(orgId, username);
+        int index = stampIndex(key);
+        if (stamps.get(index) != stamp) {
+            return;
+        }
+        unknown.put(key, Boolean.TRUE);
+        if (stamps.get(index) != stamp) {
+            unknown.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops the entry now and again when the current transaction completes, bumping the stamp each time,
+     * so a concurrent lookup cannot re-cache the username before the user is committed.
+     */
+    public void evict(Long orgId, String username) {
+        String key = key(orgId, username);
+        invalidate(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(key);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        unknown.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(unknown, "unknown_usernames", Tags.empty()).bindTo(registry);
+    }
+
+    private void invalidate(String key) {
+        stamps.incrementAndGet(stampIndex(key));
+        unknown.invalidate(key);
+    }
+
+    private static int stampIndex(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STAMPS;
+    }
+
+    /**
+     * The id has no separator in it, so the first one ends it whatever the username contains.
+     */
+    private static String key(Long orgId, String username) {
+        return orgId + ":" + username;
+    }
+}
@@ -1,51 +1,163 @@
 package com.backend.tasks.service.user.impl;
 
-import com.backend.tasks.PersistenceUtils;
+import com.backend.tasks.ConstraintUtils;
+import com.backend.tasks.exceptions.AuthenticationFailedException;
 import com.backend.tasks.exceptions.CustomValidationException;
 import com.backend.tasks.exceptions.ObjectAlreadyExistException;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.exceptions.PreconditionFailedException;
+import com.backend.tasks.mapper.UserMapper;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.model.User;
+import com.backend.tasks.repository.UserCredentials;
 import com.backend.tasks.repository.UserRepository;
 import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.password.PasswordService;
+import com.backend.tasks.service.user.UserCreateResult;
 import com.backend.tasks.service.user.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Passwords are hashed before the transaction of a write starts, so no connection is held while they wait
+ * for the hashing threads. The organization is looked up before the transaction of a read starts, so a cache miss
+ * is loaded from the primary database without a second connection.
+ */
 @Slf4j
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final OrganizationService organizationService;
+    private final PasswordService passwordService;
+    private final UnknownUsernameCache unknownUsernameCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean replicaConfigured;
 
-    public UserServiceImpl(UserRepository userRepository, OrganizationService organizationService) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    public UserServiceImpl(UserRepository userRepository, OrganizationService organizationService,
+                           PasswordService passwordService, UnknownUsernameCache unknownUsernameCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${tasks.datasource.replica.url:}") String replicaUrl) {
         this.userRepository = userRepository;
         this.organizationService = organizationService;
+        this.passwordService = passwordService;
+        this.unknownUsernameCache = unknownUsernameCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.replicaConfigured = !replicaUrl.isEmpty();
     }
 
-    @Transactional
     @Override
     public User create(User user, Long orgId) {
         Organization organization = organizationService.findById(orgId);
-        User userByUsername = userRepository.findByUsernameAndOrganizationId(user.getUsername(), orgId);
-        if (userByUsername != null) {
-            log.error("User with such username: {} already exist in this organization: {}", user.getUsername(), organization.getName());
-            throw new ObjectAlreadyExistException("User", user.getUsername());
+        user.setPassword(passwordService.hash(user.getPassword()));
+        return transactionTemplate.execute(status -> {
+            user.setOrganization(organization);
+            unknownUsernameCache.evict(orgId, user.getUsername());
+            try {
+                return userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                if (!ConstraintUtils.isViolated(e, User.USERNAME_CONSTRAINT)) {
+                    throw e;
+                }
+                log.error("User with such username: {} already exist in this organization: {}", user.getUsername(), organization.getName());
+                throw new ObjectAlreadyExistException("User", user.getUsername());
+            }
+        });
+    }
+
+    @Override
+    public List<UserCreateResult> createAll(List<User> users, Long orgId) {
+        Organization organization = organizationService.findById(orgId);
+        Set<String> usernames = users.stream().map(User::getUsername).collect(Collectors.toSet());
+        Set<String> takenUsernames = new HashSet<>(userRepository.findUsernamesByOrganizationIdAndUsernameIn(orgId, usernames));
+
+        boolean[] free = new boolean[users.size()];
+        List<String> passwords = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            free[i] = takenUsernames.add(users.get(i).getUsername());
+            if (free[i]) {
+                passwords.add(users.get(i).getPassword());
+            }
         }
-        user.setOrganization(organization);
-        return userRepository.save(user);
+        // hash all passwords at once so that they are spread over the hashing threads
+        List<String> hashes = passwordService.hashAll(passwords);
+        return transactionTemplate.execute(status -> insertAll(users, free, hashes.iterator(), organization));
+    }
+
+    /**
+     * Inserts the users marked free, in JDBC batches. Usernames taken while the passwords were hashed are
+     * reported as conflicts.
+     */
+    private List<UserCreateResult> insertAll(List<User> users, boolean[] free, Iterator<String> hashes, Organization organization) {
+        Long orgId = organization.getId();
+        Set<String> freeUsernames = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            if (free[i]) {
+                freeUsernames.add(users.get(i).getUsername());
+            }
+        }
+        Set<String> takenMeanwhile = freeUsernames.isEmpty() ? new HashSet<>()
+                : new HashSet<>(userRepository.findUsernamesByOrganizationIdAndUsernameIn(orgId, freeUsernames));
+
+        List<UserCreateResult> results = new ArrayList<>(users.size());
+        int pendingInserts = 0;
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (!free[i]) {
+                results.add(UserCreateResult.conflict(user));
+                continue;
+            }
+            String hash = hashes.next();
+            if (takenMeanwhile.contains(user.getUsername())) {
+                results.add(UserCreateResult.conflict(user));
+                continue;
+            }
+            user.setOrganization(organization);
+            user.setPassword(hash);
+            unknownUsernameCache.evict(orgId, user.getUsername());
+            results.add(UserCreateResult.created(userRepository.save(user)));
+            if (++pendingInserts == batchSize) {
+                // send the batch and drop the inserted users from the persistence context
+                entityManager.flush();
+                entityManager.clear();
+                pendingInserts = 0;
+            }
+        }
+        return results;
     }
 
 
-    @Transactional
     @Override
     public User find(Long userId, Long orgId) {
-        User user = userRepository.findByIdAndOrganizationId(userId, orgId);
+        organizationService.findById(orgId);
+        User user = readOnlyTransaction.execute(status -> userRepository.findByIdAndOrganizationId(userId, orgId));
         if(user == null) {
             ObjectNotFoundException notFoundException = new ObjectNotFoundException("User", userId);
             log.error(notFoundException.getMessage());
@@ -54,9 +166,27 @@ public class UserServiceImpl implements UserService {
         return user;
     }
 
-    @Transactional
+    @Override
+    public Long findVersion(Long userId, Long orgId) {
+        organizationService.findById(orgId);
+        Long version = readOnlyTransaction.execute(status -> userRepository.findVersionByIdAndOrganizationId(userId, orgId));
+        if (version == null) {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("User", userId);
+            log.error(notFoundException.getMessage());
+            throw notFoundException;
+        }
+        return version;
+    }
+
     @Override
     public User update(User user, Long orgId) {
+        if (user.getPassword() != null) {
+            user.setPassword(passwordService.hash(user.getPassword()));
+        }
+        return transactionTemplate.execute(status -> updateHashed(user, orgId));
+    }
+
+    private User updateHashed(User user, Long orgId) {
         Long userId = user.getId();
         Optional<User> userOpt = userRepository.findById(userId);
         if (!userOpt.isPresent()) {
@@ -65,26 +195,91 @@ public class UserServiceImpl implements UserService {
             throw notFoundException;
         }
         User existedUser = userOpt.get();
-        if (!existedUser.getUsername().equals(user.getUsername())) {
-            User userByName = userRepository.findByUsernameAndOrganizationId(user.getUsername(), orgId);
-            if (!Objects.isNull(userByName)) {
-                throw new CustomValidationException("User with  such name already exist:" + userByName.getUsername());
+        if (user.getVersion() != null && !user.getVersion().equals(existedUser.getVersion())) {
+            throw new PreconditionFailedException("User[" + userId + "] has version "
+                    + existedUser.getVersion() + ", not " + user.getVersion());
+        }
+        if (user.getUsername() != null) {
+            unknownUsernameCache.evict(orgId, user.getUsername());
+        }
+        UserMapper.INSTANCE.updateUser(user, existedUser);
+        try {
+            return userRepository.saveAndFlush(existedUser);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintUtils.isViolated(e, User.USERNAME_CONSTRAINT)) {
+                throw e;
             }
+            throw new CustomValidationException("User with  such name already exist:" + user.getUsername());
         }
-        user = (User) PersistenceUtils.partialUpdate(existedUser, user);
-        return userRepository.save(user);
+    }
+
+    /**
+     * The credentials are read in a short read-only transaction and the password is checked after it ended,
+     * so no connection waits for the hashing threads. An outdated hash is replaced in a transaction of its own.
+     * A missing or deleting organization fails like wrong credentials, so its existence is not revealed.
+     */
+    @Override
+    public Long authenticate(String username, String rawPassword, Long orgId) {
+        if (unknownUsernameCache.isUnknown(orgId, username)) {
+            throw new AuthenticationFailedException();
+        }
+        try {
+            organizationService.findById(orgId);
+        } catch (ObjectNotFoundException e) {
+            throw new AuthenticationFailedException();
+        }
+        long unknownStamp = unknownUsernameCache.stamp(orgId, username);
+        UserCredentials credentials = readOnlyTransaction.execute(status -> userRepository.findByUsernameAndOrganizationId(username, orgId));
+        if (credentials == null && replicaConfigured) {
+            // the read went to the replica, which may not have the user yet; confirm on the primary before caching
+            credentials = transactionTemplate.execute(status -> userRepository.findByUsernameAndOrganizationId(username, orgId));
+        }
+        if (credentials == null) {
+            unknownUsernameCache.putUnknown(orgId, username, unknownStamp);
+            throw new AuthenticationFailedException();
+        }
+        Long userId = credentials.getId();
+        String storedPassword = credentials.getPassword();
+        if (!passwordService.matches(rawPassword, storedPassword)) {
+            throw new AuthenticationFailedException();
+        }
+        if (passwordService.needsRehash(storedPassword)) {
+            log.info("Rehashing password of User[{}]", userId);
+            String hash = passwordService.hash(rawPassword);
+            transactionTemplate.execute(status -> userRepository.updatePasswordByIdAndPassword(userId, storedPassword, hash));
+        }
+        return userId;
     }
 
     @Transactional
     @Override
     public void delete(Long userId, Long orgId) {
-        User user = find(userId, orgId);
-        userRepository.deleteById(user.getId());
+        if (userRepository.deleteByIdAndOrganizationId(userId, orgId) == 0) {
+            ObjectNotFoundException notFoundException = new ObjectNotFoundException("User", userId);
+            log.error(notFoundException.getMessage());
+            throw notFoundException;
+        }
+    }
+
+    @Override
+    public Slice<User> findAllByOrgId(Long orgId, Long afterId, int limit) {
+        organizationService.findById(orgId);
+        Long fromId = afterId == null ? Long.MIN_VALUE : afterId;
+        return readOnlyTransaction.execute(status ->
+                userRepository.findByOrganizationIdAndIdGreaterThanOrderByIdAsc(orgId, fromId, PageRequest.of(0, limit)));
     }
 
-    @Transactional
     @Override
-    public List<User> findAllByOrgId(Long orgId) {
-        return userRepository.findByOrganizationId(orgId);
+    public void exportAllByOrgId(Long orgId, Consumer<User> consumer) {
+        organizationService.findById(orgId);
+        readOnlyTransaction.execute(status -> {
+            try (Stream<User> users = userRepository.streamByOrganizationId(orgId)) {
+                users.forEach(user -> {
+                    consumer.accept(user);
+                    entityManager.detach(user);
+                });
+            }
+            return null;
+        });
     }
 }
@@ -0,0 +1,222 @@
+package com.backend.tasks.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Holds back response bodies until they outgrow server.compression.min-response-size. Tomcat only honours
+ * that threshold for responses of known length, and Spring's message converters flush when they finish,
+ * which commits every response chunked and so gzips even a few bytes of JSON. Bodies that end below the
+ * threshold get a Content-Length instead; larger ones stream and are compressed as before.
+ * Bodies written after the request went asynchronous are not held back.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    private final int minResponseSize;
+
+    public CompressionThresholdFilter(@Value("${server.compression.min-response-size:2048}") int minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ThresholdResponse thresholdResponse = new ThresholdResponse(response, minResponseSize);
+        filterChain.doFilter(request, thresholdResponse);
+        if (isAsyncStarted(request)) {
+            thresholdResponse.release();
+        } else {
+            thresholdResponse.complete();
+        }
+    }
+
+    private static class ThresholdResponse extends HttpServletResponseWrapper {
+        private final int threshold;
+        private ThresholdOutputStream outputStream;
+        private PrintWriter writer;
+
+        ThresholdResponse(HttpServletResponse response, int threshold) {
+            super(response);
+            this.threshold = threshold;
+        }
+
+        /**
+         * Sends the held bytes with their length.
+         */
+        void complete() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.complete();
+            }
+        }
+
+        /**
+         * Sends the held bytes and lets everything written later straight through.
+         */
+        void release() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.release();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new ThresholdOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (outputStream == null || !outputStream.isHolding()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (outputStream != null) {
+                outputStream.discard();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (outputStream != null) {
+                outputStream.discard();
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (outputStream != null) {
+                outputStream.discard();
+            }
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            if (outputStream != null) {
+                outputStream.discard();
+            }
+            super.sendError(sc);
+        }
+
+        private class ThresholdOutputStream extends ServletOutputStream {
+            private final ServletOutputStream out;
+            private ByteArrayOutputStream held;
+
+            ThresholdOutputStream(ServletOutputStream out) {
+                this.out = out;
+                this.held = new ByteArrayOutputStream(Math.min(threshold, 8192));
+            }
+
+            boolean isHolding() {
+                return held != null;
+            }
+
+            void complete() throws IOException {
+                if (held != null && held.size() > 0 && !isCommitted()) {
+                    setContentLength(held.size());
+                }
+                release();
+            }
+
+            void release() throws IOException {
+                if (held != null) {
+                    ByteArrayOutputStream bytes = held;
+                    held = null;
+                    bytes.writeTo(out);
+                }
+            }
+
+            void discard() {
+                if (held != null) {
+                    held.reset();
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (held == null) {
+                    out.write(b);
+                    return;
+                }
+                held.write(b);
+                if (held.size() > threshold) {
+                    release();
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (held == null) {
+                    out.write(b, off, len);
+                    return;
+                }
+                held.write(b, off, len);
+                if (held.size() > threshold) {
+                    release();
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (held == null) {
+                    out.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                complete();
+                out.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return out.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                out.setWriteListener(writeListener);
+            }
+        }
+    }
+}
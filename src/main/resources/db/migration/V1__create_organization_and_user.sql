@@ -0,0 +1,25 @@
+-- Increments must match tasks.id.increment_size, PooledSequenceGenerator hands out ids from blocks of this size
+create sequence organization_seq start with 1 increment by 50;
+create sequence user_seq start with 1 increment by 50;
+
+create table organization (
+    id bigint not null,
+    name varchar(255),
+    constraint pk_organization primary key (id),
+    constraint uk_organization_name unique (name)
+);
+
+create table user (
+    id bigint not null,
+    username varchar(255),
+    password varchar(255),
+    org_id bigint,
+    constraint pk_user primary key (id),
+    constraint fk_user_organization foreign key (org_id) references organization (id),
+    constraint uk_user_org_id_username unique (org_id, username)
+);
+
+-- findByUsername
+create index idx_user_username on user (username);
+-- keyset paging and streaming of users inside an organization
+create index idx_user_org_id_id on user (org_id, id);
@@ -0,0 +1,19 @@
+-- Organizations being removed in the background are hidden from reads until the deletion job drops them
+alter table organization add column deleting boolean default false not null;
+
+create sequence organization_deletion_seq start with 1 increment by 50;
+
+create table organization_deletion (
+    id bigint not null,
+    org_id bigint not null,
+    status varchar(16) not null,
+    total_users bigint not null,
+    deleted_users bigint not null,
+    error_message varchar(1024),
+    created_at timestamp not null,
+    finished_at timestamp,
+    constraint pk_organization_deletion primary key (id)
+);
+
+-- jobs resumed on startup
+create index idx_organization_deletion_status on organization_deletion (status);
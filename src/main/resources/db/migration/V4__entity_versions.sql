@@ -0,0 +1,3 @@
+-- Optimistic locking versions, also returned as ETags
+alter table organization add column version bigint default 0 not null;
+alter table user add column version bigint default 0 not null;
@@ -3,6 +3,7 @@ package com.backend.tasks;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
 
@@ -16,6 +17,7 @@ public class ApplicationTest {
     }
 
     @Bean
+    @Profile("!pooled")
     public DataSource dataSource() {
         return new EmbeddedDatabaseBuilder()
                 .setName("mysuperdispatch_test")
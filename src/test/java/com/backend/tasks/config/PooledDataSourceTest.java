@@ -0,0 +1,52 @@
+package com.backend.tasks.config;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+@ActiveProfiles("pooled")
+public class PooledDataSourceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Test
+    public void pooledProfileUsesConfiguredHikariPool() throws SQLException {
+        assertThat(dataSource.isWrapperFor(HikariDataSource.class)).isTrue();
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        assertThat(hikari.getPoolName()).isEqualTo("tasks");
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(2000);
+        assertThat(hikari.getJdbcUrl()).contains("QUERY_CACHE_SIZE=64");
+    }
+
+    @Test
+    public void poolMetricsArePublished() {
+        organizationRepository.count();
+
+        assertThat(meterRegistry.get("hikaricp.connections.active").tag("pool", "tasks").gauge().value()).isZero();
+        assertThat(meterRegistry.get("hikaricp.connections.pending").tag("pool", "tasks").gauge()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").tag("pool", "tasks").timer().count()).isPositive();
+        assertThat(meterRegistry.get("hikaricp.connections.usage").tag("pool", "tasks").timer().count()).isPositive();
+    }
+}
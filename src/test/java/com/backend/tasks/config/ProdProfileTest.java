@@ -0,0 +1,128 @@
+package com.backend.tasks.config;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.dto.OrganizationReadDto;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.OrganizationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("prod")
+public class ProdProfileTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<Module> modules;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void jsonIsCompactAndUsesAfterburner() throws IOException {
+        OrganizationReadDto organization = new OrganizationReadDto();
+        organization.setId(1L);
+        organization.setName("Compact");
+
+        assertThat(objectMapper.writeValueAsString(organization)).isEqualTo("{\"id\":1,\"name\":\"Compact\"}");
+        assertThat(modules).hasAtLeastOneElementOfType(AfterburnerModule.class);
+    }
+
+    @Test
+    public void largeResponsesAreGzipped() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            organizationService.create(createOrganization(null, "Organization " + i));
+        }
+
+        HttpURLConnection connection = get("/orgs?limit=100");
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getHeaderField("Content-Encoding")).isEqualTo("gzip");
+        try (InputStream body = new GZIPInputStream(connection.getInputStream())) {
+            JsonNode page = objectMapper.readTree(body);
+            assertThat(page.get("items")).hasSize(100);
+        }
+    }
+
+    @Test
+    public void streamedExportIsGzipped() throws IOException {
+        Long orgId = organizationService.create(createOrganization(null, "Exported")).getId();
+        jdbcTemplate.update("insert into user (id, username, password, org_id) "
+                + "select x, 'user' || x, 'password', ? from system_range(1, 100)", orgId);
+
+        HttpURLConnection connection = get("/orgs/" + orgId + "/users/export");
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getHeaderField("Content-Encoding")).isEqualTo("gzip");
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(connection.getInputStream()), StandardCharsets.UTF_8))) {
+            assertThat(lines.lines().count()).isEqualTo(100);
+        }
+    }
+
+    @Test
+    public void smallResponsesAreNotCompressed() throws IOException {
+        Organization organization = organizationService.create(createOrganization(null, "Small"));
+
+        HttpURLConnection connection = get("/orgs/" + organization.getId());
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getHeaderField("Content-Encoding")).isNull();
+        try (InputStream body = connection.getInputStream()) {
+            assertThat(objectMapper.readTree(body).get("name").asText()).isEqualTo("Small");
+        }
+    }
+
+    private HttpURLConnection get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        return connection;
+    }
+}
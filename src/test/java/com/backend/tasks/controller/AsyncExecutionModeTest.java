@@ -0,0 +1,135 @@
+package com.backend.tasks.controller;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.impl.OrganizationCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createOrganizationCreateOrUpdateDto;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static com.backend.tasks.utils.TestUtils.createUserCreateDto;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * tasks.web.execution-mode=async: controller methods run on the request executor and respond in an async dispatch.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class, properties = "tasks.web.execution-mode=async")
+public class AsyncExecutionModeTest extends BaseControllerTest {
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
+    @Autowired
+    @Qualifier("requestExecutor")
+    private ThreadPoolTaskExecutor requestExecutor;
+
+    private Organization organization;
+    private User user;
+
+    @Before
+    public void createOrganizationWithUser() {
+        organization = organizationRepository.save(createOrganization(null, "Async organization"));
+        user = createUser(null, "async", "password");
+        user.setOrganization(organization);
+        user = userRepository.save(user);
+    }
+
+    @After
+    public void tearDown() {
+        organizationCache.invalidateAll();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void handlersRunOnRequestExecutor() throws Exception {
+        long submitted = requestExecutor.getThreadPoolExecutor().getTaskCount();
+
+        performAsync(post("/orgs").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createOrganizationCreateOrUpdateDto("Created asynchronously"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name", is("Created asynchronously")));
+        performAsync(get("/orgs/" + organization.getId() + "/users/" + user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.username", is("async")));
+
+        assertThat(requestExecutor.getThreadPoolExecutor().getTaskCount()).isEqualTo(submitted + 2);
+    }
+
+    @Test
+    public void serviceExceptionsAreTranslated() throws Exception {
+        performAsync(get("/orgs/" + organization.getId() + "/users/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").exists());
+        performAsync(post("/orgs/" + organization.getId() + "/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserCreateDto("async", "password"))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void unchangedUserIsNotModified() throws Exception {
+        performAsync(get("/orgs/" + organization.getId() + "/users/" + user.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void invalidRequestIsRejectedOnRequestThread() throws Exception {
+        mockMvc.perform(post("/orgs/" + organization.getId() + "/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserCreateDto("", "password"))))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void exportKeepsItsOwnStreaming() throws Exception {
+        long submitted = requestExecutor.getThreadPoolExecutor().getTaskCount();
+
+        performAsync(get("/orgs/" + organization.getId() + "/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"id\":" + user.getId() + ",\"username\":\"async\"}\n"));
+
+        assertThat(requestExecutor.getThreadPoolExecutor().getTaskCount()).isEqualTo(submitted + 1);
+    }
+
+    private ResultActions performAsync(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
@@ -1,5 +1,6 @@
 package com.backend.tasks.controller;
 
+import com.backend.tasks.jdbc.StatementCountingFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
 import org.junit.Before;
@@ -35,7 +36,9 @@ public abstract class BaseControllerTest {
 
 	protected void setup() throws Exception {
 
-    	this.mockMvc = webAppContextSetup(webApplicationContext).build();
+    	this.mockMvc = webAppContextSetup(webApplicationContext)
+				.addFilters(webApplicationContext.getBean(StatementCountingFilter.class))
+				.build();
 
     }
     
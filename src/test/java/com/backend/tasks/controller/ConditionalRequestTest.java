@@ -0,0 +1,130 @@
+package com.backend.tasks.controller;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.impl.OrganizationCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createOrganizationCreateOrUpdateDto;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static com.backend.tasks.utils.TestUtils.createUserUpdateDto;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags, If-None-Match and If-Match against a real database, so versions are maintained by Hibernate.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class ConditionalRequestTest extends BaseControllerTest {
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
+    private Organization organization;
+    private User user;
+
+    @Before
+    public void createOrganizationWithUser() {
+        organization = organizationRepository.save(createOrganization(null, "Versioned organization"));
+        user = createUser(null, "versioned", "password");
+        user.setOrganization(organization);
+        user = userRepository.save(user);
+    }
+
+    @After
+    public void tearDown() {
+        organizationCache.invalidateAll();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void unchangedOrganizationIsNotModified() throws Exception {
+        String uri = "/orgs/" + organization.getId();
+        mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(statements(0));
+    }
+
+    @Test
+    public void organizationUpdateRequiresCurrentVersion() throws Exception {
+        String uri = "/orgs/" + organization.getId();
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createOrganizationCreateOrUpdateDto("Renamed organization"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createOrganizationCreateOrUpdateDto("Lost update"))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.name").value("Renamed organization"));
+    }
+
+    @Test
+    public void unchangedUserIsNotModifiedWithVersionQuery() throws Exception {
+        String uri = "/orgs/" + organization.getId() + "/users/" + user.getId();
+        mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(statements(1));
+    }
+
+    @Test
+    public void userUpdateRequiresCurrentVersion() throws Exception {
+        String uri = "/orgs/" + organization.getId() + "/users/" + user.getId();
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "W/\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserUpdateDto("weak", "password"))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserUpdateDto("renamed", "password"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserUpdateDto("lost", "password"))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(put(uri).header(HttpHeaders.IF_MATCH, "*").contentType(MediaType.APPLICATION_JSON)
+                .content(json(createUserUpdateDto("forced", "password"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+}
@@ -0,0 +1,188 @@
+package com.backend.tasks.controller;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.dto.UserAuthenticateDto;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.repository.OrganizationDeletionRepository;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.h2.tools.TriggerAdapter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * DELETE /orgs/{orgId}?async=true against a real database, with chunks smaller than the organization.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+@TestPropertySource(properties = "tasks.deletion.chunk-size=" + OrganizationAsyncDeleteTest.CHUNK_SIZE)
+public class OrganizationAsyncDeleteTest extends BaseControllerTest {
+    static final int CHUNK_SIZE = 1000;
+    private static final int USERS = 2500;
+    private static final long FIRST_USER_ID = 2_000_000_001L;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationDeletionRepository organizationDeletionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long orgId;
+
+    @Before
+    public void createLargeOrganization() {
+        orgId = organizationRepository.save(createOrganization(null, "Large organization")).getId();
+        jdbcTemplate.update("insert into user (id, username, password, org_id) "
+                + "select x + ?, 'user' || x, 'password', ? from system_range(1, ?)", FIRST_USER_ID - 1, orgId, USERS);
+    }
+
+    @After
+    public void tearDown() {
+        jdbcTemplate.execute("drop trigger if exists fail_user_delete");
+        organizationDeletionRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void asyncDeleteRemovesUsersInBackground() throws Exception {
+        MvcResult result = mockMvc.perform(delete("/orgs/" + orgId).param("async", "true").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.org_id").value(orgId))
+                .andExpect(jsonPath("$.total_users").value(USERS))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andReturn();
+        String location = result.getResponse().getHeader("Location");
+        assertThat(location).endsWith("/orgs/deletions/" + objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong());
+
+        mockMvc.perform(get("/orgs/" + orgId)).andExpect(status().isNotFound());
+
+        JsonNode deletion = awaitFinished(location);
+        assertThat(deletion.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(deletion.get("deleted_users").asLong()).isEqualTo(USERS);
+        assertThat(deletion.get("finished_at").isNull()).isFalse();
+        assertThat(userRepository.count()).isZero();
+        assertThat(organizationRepository.existsById(orgId)).isFalse();
+    }
+
+    @Test
+    public void failedDeleteIsRestartedByTheNextDelete() throws Exception {
+        jdbcTemplate.execute("create trigger fail_user_delete before delete on user for each row call \""
+                + FailingDeleteTrigger.class.getName() + "\"");
+
+        String location = mockMvc.perform(delete("/orgs/" + orgId).param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader("Location");
+        JsonNode failed = awaitFinished(location);
+        assertThat(failed.get("status").asText()).isEqualTo("FAILED");
+        assertThat(failed.get("error_message").asText()).isNotEmpty();
+
+        mockMvc.perform(get("/orgs/" + orgId)).andExpect(status().isNotFound());
+        jdbcTemplate.execute("drop trigger fail_user_delete");
+
+        mockMvc.perform(delete("/orgs/" + orgId).param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", location))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+        JsonNode deletion = awaitFinished(location);
+        assertThat(deletion.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(deletion.get("error_message").isNull()).isTrue();
+        assertThat(deletion.get("deleted_users").asLong()).isEqualTo(USERS);
+        assertThat(userRepository.count()).isZero();
+        assertThat(organizationRepository.existsById(orgId)).isFalse();
+    }
+
+    @Test
+    public void deletingOrganizationIsNotFound() throws Exception {
+        transactionTemplate.execute(status -> organizationRepository.markDeleting(orgId));
+
+        mockMvc.perform(get("/orgs/" + orgId)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/orgs/" + orgId).param("expand", "users")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/orgs")).andExpect(jsonPath("$.items").isEmpty());
+        mockMvc.perform(put("/orgs/" + orgId).contentType(MediaType.APPLICATION_JSON).content(json(createOrganization(null, "Renamed"))))
+                .andExpect(status().isNotFound());
+        // found deleting before any user is touched
+        mockMvc.perform(delete("/orgs/" + orgId)).andExpect(status().isNotFound()).andExpect(statements(1));
+        mockMvc.perform(delete("/orgs/" + orgId).param("async", "true")).andExpect(status().isNotFound());
+        String userPath = "/orgs/" + orgId + "/users/" + FIRST_USER_ID;
+        mockMvc.perform(get(userPath)).andExpect(status().isNotFound());
+        mockMvc.perform(get(userPath).header("If-None-Match", "\"0\"")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/orgs/" + orgId + "/users")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/orgs/" + orgId + "/users/export")).andExpect(status().isNotFound());
+        // the users still have their passwords, but a deleting organization is not revealed by a 404
+        UserAuthenticateDto credentials = new UserAuthenticateDto();
+        credentials.setUsername("user1");
+        credentials.setPassword("password");
+        mockMvc.perform(post("/orgs/" + orgId + "/users/authenticate").contentType(MediaType.APPLICATION_JSON).content(json(credentials)))
+                .andExpect(status().isUnauthorized());
+
+        assertThat(userRepository.count()).isEqualTo(USERS);
+        Organization organization = organizationRepository.findById(orgId).orElseThrow(AssertionError::new);
+        assertThat(organization.getName()).isEqualTo("Large organization");
+    }
+
+    @Test
+    public void unknownDeletionIsNotFound() throws Exception {
+        mockMvc.perform(get("/orgs/deletions/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("Location"));
+    }
+
+    /**
+     * Installed on the user table to make the deletion job fail.
+     */
+    public static class FailingDeleteTrigger extends TriggerAdapter {
+        @Override
+        public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+            throw new SQLException("User deletes are disabled");
+        }
+    }
+
+    private JsonNode awaitFinished(String location) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            String body = mockMvc.perform(get(location)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            JsonNode deletion = objectMapper.readTree(body);
+            if (!"RUNNING".equals(deletion.get("status").asText()) || System.currentTimeMillis() > deadline) {
+                return deletion;
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.backend.tasks.controller;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.jdbc.StatementCountingFilter;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements issued by GET /orgs against a real database.
+ */
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(classes = ApplicationTest.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class OrganizationControllerQueryCountTest extends BaseControllerTest {
+    private static final int USERS_PER_ORGANIZATION = 3;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void findAllIssuesOneStatement() throws Exception {
+        createOrganizations(5);
+
+        mockMvc.perform(get("/orgs").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(5)))
+                .andExpect(statements(1));
+    }
+
+    @Test
+    public void findAllExpandedIssuesConstantStatements() throws Exception {
+        createOrganizations(2);
+        long statementsForTwo = countStatements("/orgs?expand=users", 2);
+
+        createOrganizations(8);
+        long statementsForTen = countStatements("/orgs?expand=users", 10);
+
+        assertThat(statementsForTwo).isEqualTo(2);
+        assertThat(statementsForTen).isEqualTo(statementsForTwo);
+    }
+
+    @Test
+    public void findAllDoesNotReturnUsersByDefault() throws Exception {
+        createOrganizations(1);
+
+        mockMvc.perform(get("/orgs").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.[0].users").doesNotExist());
+
+        mockMvc.perform(get("/orgs?expand=users").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.[0].users", hasSize(USERS_PER_ORGANIZATION)))
+                .andExpect(jsonPath("$.items.[0].users.[0].password").doesNotExist());
+    }
+
+    @Test
+    public void findAllWithUnsupportedExpand() throws Exception {
+        mockMvc.perform(get("/orgs?expand=everything").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long countStatements(String url, int expectedOrganizations) throws Exception {
+        String statements = mockMvc.perform(get(url).contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(expectedOrganizations)))
+                .andReturn().getResponse().getHeader(StatementCountingFilter.STATEMENTS_HEADER);
+        return Long.parseLong(statements);
+    }
+
+    private void createOrganizations(int count) {
+        long existing = organizationRepository.count();
+        for (int i = 0; i < count; i++) {
+            Organization organization = organizationRepository.save(createOrganization(null, "Organization " + (existing + i)));
+            for (int j = 0; j < USERS_PER_ORGANIZATION; j++) {
+                User user = createUser(null, "user" + j, "password" + j);
+                user.setOrganization(organization);
+                userRepository.save(user);
+            }
+        }
+    }
+}
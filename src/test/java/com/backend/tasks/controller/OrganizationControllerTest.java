@@ -2,12 +2,15 @@ package com.backend.tasks.controller;
 
 import com.backend.tasks.Application;
 import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.CursorUtils;
 import com.backend.tasks.dto.OrganizationCreateOrUpdateDto;
 import com.backend.tasks.exceptions.ExceptionTranslator;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
 import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
 import com.backend.tasks.service.org.OrganizationService;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -15,6 +18,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -23,14 +29,18 @@ import java.text.MessageFormat;
 import java.util.Locale;
 import java.util.Random;
 
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
 import static com.backend.tasks.utils.TestUtils.createOrganization;
 import static com.backend.tasks.utils.TestUtils.createOrganizationCreateOrUpdateDto;
+import static com.backend.tasks.utils.TestUtils.createUser;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,17 +61,52 @@ public class OrganizationControllerTest extends BaseControllerTest {
         Organization organizationA = createOrganization(random.nextLong(), "Organization A");
         Organization organizationB = createOrganization(random.nextLong(), "Organization B");
 
-        when(organizationService.findAll()).thenReturn(Lists.newArrayList(organizationA, organizationB));
+        when(organizationService.findAll(null, 100))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(organizationA, organizationB), PageRequest.of(0, 100), false));
 
         mockMvc.perform(get("/orgs").contentType(MediaType.APPLICATION_JSON))
                 .andDo(print()).andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$.[0].id", is(organizationA.getId())))
-                .andExpect(jsonPath("$.[0].name", is(organizationA.getName())))
-                .andExpect(jsonPath("$.[1].id", is(organizationB.getId())))
-                .andExpect(jsonPath("$.[1].name", is(organizationB.getName())));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items.[0].id", is(organizationA.getId())))
+                .andExpect(jsonPath("$.items.[0].name", is(organizationA.getName())))
+                .andExpect(jsonPath("$.items.[1].id", is(organizationB.getId())))
+                .andExpect(jsonPath("$.items.[1].name", is(organizationB.getName())))
+                .andExpect(jsonPath("$.next_cursor").doesNotExist())
+                .andExpect(statements(0));
+
+        verify(organizationService, only()).findAll(null, 100);
+    }
+
+    @Test
+    public void findAllWithCursor() throws Exception {
+        Organization organizationA = createOrganization(10L, "Organization A");
+        Organization organizationB = createOrganization(11L, "Organization B");
+
+        when(organizationService.findAll(null, 2))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(organizationA, organizationB), PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/orgs").param("limit", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.next_cursor", is(CursorUtils.encode(organizationB.getId()))));
+
+        when(organizationService.findAll(organizationB.getId(), 2))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(), PageRequest.of(0, 2), false));
+
+        mockMvc.perform(get("/orgs").param("limit", "2").param("cursor", CursorUtils.encode(organizationB.getId()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.next_cursor").doesNotExist());
+    }
 
-        verify(organizationService, only()).findAll();
+    @Test
+    public void findAllWithInvalidLimit() throws Exception {
+        mockMvc.perform(get("/orgs").param("limit", "0").contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/orgs").param("limit", "100000").contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isBadRequest());
     }
 
     @Test
@@ -102,16 +147,56 @@ public class OrganizationControllerTest extends BaseControllerTest {
         Random random = new Random();
         Long id = random.nextLong();
         Organization organizationA = createOrganization(id, "Organization A");
+        organizationA.setVersion(3L);
 
         when(organizationService.findById(id)).thenReturn(organizationA);
 
         mockMvc.perform(get("/orgs/" + id).contentType(MediaType.APPLICATION_JSON))
                 .andDo(print()).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$.id", is(organizationA.getId())))
                 .andExpect(jsonPath("$.name", is(organizationA.getName())));
         verify(organizationService, only()).findById(id);
     }
 
+    @Test
+    public void findByIdNotModified() throws Exception {
+        Random random = new Random();
+        Long id = random.nextLong();
+        Organization organizationA = createOrganization(id, "Organization A");
+        organizationA.setVersion(3L);
+
+        when(organizationService.findById(id)).thenReturn(organizationA);
+
+        mockMvc.perform(get("/orgs/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andDo(print()).andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/orgs/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is(organizationA.getName())));
+    }
+
+    @Test
+    public void findByIdExpandUsers() throws Exception {
+        Random random = new Random();
+        Long id = random.nextLong();
+        Organization organizationA = createOrganization(id, "Organization A");
+        User userA = createUser(random.nextLong(), "usrA", "passwdA");
+        organizationA.setUsers(Sets.newHashSet(userA));
+
+        when(organizationService.findByIdWithUsers(id)).thenReturn(organizationA);
+
+        mockMvc.perform(get("/orgs/" + id).param("expand", "users").contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(organizationA.getId())))
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users.[0].username", is(userA.getUsername())))
+                .andExpect(jsonPath("$.users.[0].password").doesNotExist());
+        verify(organizationService, only()).findByIdWithUsers(id);
+    }
+
     @Test
     public void findByIdNotFound() throws Exception {
         mockMvc = MockMvcBuilders.standaloneSetup(organizationService).setControllerAdvice(new ExceptionTranslator(null)).build();
@@ -130,6 +215,7 @@ public class OrganizationControllerTest extends BaseControllerTest {
         Long id = random.nextLong();
         Organization organizationA = createOrganization(id, "Organization ABC");
         Organization organizationAUpdated = createOrganization(id, "Organization A");
+        organizationAUpdated.setVersion(1L);
 
         when(organizationService.findById(id)).thenReturn(organizationA);
         when(organizationService.update(organizationAUpdated)).thenReturn(organizationAUpdated);
@@ -137,6 +223,7 @@ public class OrganizationControllerTest extends BaseControllerTest {
         mockMvc.perform(put("/orgs/" + id).contentType(MediaType.APPLICATION_JSON).content(json(organizationADto)))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$.id", is(organizationAUpdated.getId())))
                 .andExpect(jsonPath("$.name", is(organizationAUpdated.getName())));
     }
@@ -0,0 +1,149 @@
+package com.backend.tasks.controller;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.dto.UserAuthenticateDto;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.impl.OrganizationCache;
+import com.backend.tasks.service.user.UserService;
+import com.backend.tasks.service.user.impl.UnknownUsernameCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /orgs/{orgId}/users/authenticate against a real database, so the statements it runs can be counted.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class UserAuthenticateTest extends BaseControllerTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
+    @Autowired
+    private UnknownUsernameCache unknownUsernameCache;
+
+    private Organization organization;
+    private User user;
+
+    @Before
+    public void createOrganizationWithUser() {
+        organization = organizationRepository.save(createOrganization(null, "Login organization"));
+        user = userService.create(createUser(null, "alice", "alicepassword"), organization.getId());
+    }
+
+    @After
+    public void tearDown() {
+        organizationCache.invalidateAll();
+        unknownUsernameCache.invalidateAll();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void validCredentialsReadOnlyTheCredentials() throws Exception {
+        authenticate(organization.getId(), "alice", "alicepassword")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(user.getId().intValue())))
+                .andExpect(jsonPath("$.username", is("alice")))
+                .andExpect(statements(1));
+    }
+
+    @Test
+    public void wrongPasswordIsUnauthorized() throws Exception {
+        authenticate(organization.getId(), "alice", "wrongpassword")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid username or password")));
+    }
+
+    @Test
+    public void unknownUsernameIsLookedUpOnce() throws Exception {
+        authenticate(organization.getId(), "mallory", "password")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid username or password")))
+                .andExpect(statements(1));
+
+        authenticate(organization.getId(), "mallory", "password")
+                .andExpect(status().isUnauthorized())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    public void usernameOfOtherOrganizationIsUnknown() throws Exception {
+        Organization other = organizationRepository.save(createOrganization(null, "Other organization"));
+
+        authenticate(other.getId(), "alice", "alicepassword")
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void unknownOrganizationIsUnauthorized() throws Exception {
+        authenticate(Long.MAX_VALUE, "alice", "alicepassword")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid username or password")));
+    }
+
+    @Test
+    public void createdUserIsNoLongerUnknown() throws Exception {
+        authenticate(organization.getId(), "bob", "bobpassword")
+                .andExpect(status().isUnauthorized());
+
+        userService.create(createUser(null, "bob", "bobpassword"), organization.getId());
+
+        authenticate(organization.getId(), "bob", "bobpassword")
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void plainTextPasswordIsRehashed() throws Exception {
+        User legacy = createUser(null, "legacy", "legacypassword");
+        legacy.setOrganization(organization);
+        legacy = userRepository.save(legacy);
+
+        authenticate(organization.getId(), "legacy", "legacypassword")
+                .andExpect(status().isOk())
+                .andExpect(statements(2));
+
+        User rehashed = userRepository.findById(legacy.getId()).get();
+        assertThat(rehashed.getPassword()).startsWith("$2a$10$");
+        assertThat(rehashed.getVersion()).isEqualTo(legacy.getVersion() + 1);
+        authenticate(organization.getId(), "legacy", "legacypassword")
+                .andExpect(status().isOk())
+                .andExpect(statements(1));
+    }
+
+    private ResultActions authenticate(Long orgId, String username, String password) throws Exception {
+        UserAuthenticateDto credentials = new UserAuthenticateDto();
+        credentials.setUsername(username);
+        credentials.setPassword(password);
+        return mockMvc.perform(post("/orgs/" + orgId + "/users/authenticate")
+                .contentType(MediaType.APPLICATION_JSON).content(json(credentials)));
+    }
+}
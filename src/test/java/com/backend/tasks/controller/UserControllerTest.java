@@ -1,12 +1,17 @@
 package com.backend.tasks.controller;
 
 import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.CursorUtils;
+import com.backend.tasks.dto.UserAuthenticateDto;
 import com.backend.tasks.dto.UserCreateDto;
 import com.backend.tasks.dto.UserUpdateDto;
+import com.backend.tasks.exceptions.AuthenticationFailedException;
 import com.backend.tasks.exceptions.ExceptionTranslator;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.model.User;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserCreateResult;
 import com.backend.tasks.service.user.UserService;
 import com.google.common.collect.Lists;
 import org.junit.Test;
@@ -14,21 +19,32 @@ import org.junit.runner.RunWith;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Random;
+import java.util.function.Consumer;
 
+import static com.backend.tasks.utils.StatementCountMatchers.statements;
 import static com.backend.tasks.utils.TestUtils.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -41,6 +57,9 @@ public class UserControllerTest extends BaseControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private OrganizationService organizationService;
+
     @Test
     public void findAllByOrgId() throws Exception {
         Random random = new Random();
@@ -49,26 +68,46 @@ public class UserControllerTest extends BaseControllerTest {
         User userA = createUser(random.nextLong(), "usrA", "passwdA");
         User userB = createUser(random.nextLong(), "usrB", "passwdB");
 
-        when(userService.findAllByOrgId(organizationA.getId())).thenReturn(Lists.newArrayList(userA, userB));
+        when(userService.findAllByOrgId(organizationA.getId(), null, 100))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(userA, userB), PageRequest.of(0, 100), false));
 
         mockMvc.perform(get("/orgs/" + organizationA.getId() + "/users").contentType(MediaType.APPLICATION_JSON))
                 .andDo(print()).andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$.[0].id", is(userA.getId())))
-                .andExpect(jsonPath("$.[0].username", is(userA.getUsername())))
-                .andExpect(jsonPath("$.[0].password", is(userA.getPassword())))
-                .andExpect(jsonPath("$.[1].id", is(userB.getId())))
-                .andExpect(jsonPath("$.[1].username", is(userB.getUsername())))
-                .andExpect(jsonPath("$.[1].password", is(userB.getPassword())));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items.[0].id", is(userA.getId())))
+                .andExpect(jsonPath("$.items.[0].username", is(userA.getUsername())))
+                .andExpect(jsonPath("$.items.[0].password").doesNotExist())
+                .andExpect(jsonPath("$.items.[1].id", is(userB.getId())))
+                .andExpect(jsonPath("$.items.[1].username", is(userB.getUsername())))
+                .andExpect(jsonPath("$.items.[1].password").doesNotExist())
+                .andExpect(jsonPath("$.next_cursor").doesNotExist());
+    }
+
+    @Test
+    public void findAllByOrgIdWithCursor() throws Exception {
+        User userA = createUser(20L, "usrA", "passwdA");
+
+        when(userService.findAllByOrgId(1L, 7L, 1))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(userA), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get(uriPrefix(1L)).param("limit", "1").param("cursor", CursorUtils.encode(7L))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.next_cursor", is(CursorUtils.encode(userA.getId()))));
+
+        mockMvc.perform(get(uriPrefix(1L)).param("cursor", "not a cursor").contentType(MediaType.APPLICATION_JSON))
+                .andDo(print()).andExpect(status().isBadRequest());
     }
 
     @Test
     public void findAllByOrgIdNotFound() throws Exception {
-        when(userService.findAllByOrgId(1L)).thenReturn(Lists.newArrayList());
+        when(userService.findAllByOrgId(1L, null, 100))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(), PageRequest.of(0, 100), false));
 
         mockMvc.perform(get(uriPrefix(1l)).contentType(MediaType.APPLICATION_JSON))
                 .andDo(print()).andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.items", hasSize(0)));
     }
 
     @Test
@@ -87,7 +126,44 @@ public class UserControllerTest extends BaseControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id", is(userA.getId())))
                 .andExpect(jsonPath("$.username", is(userA.getUsername())))
-                .andExpect(jsonPath("$.password", is(userA.getPassword())));
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(statements(0));
+    }
+
+    @Test
+    public void createAll() throws Exception {
+        Random random = new Random();
+        Long orgId = random.nextLong();
+        User userA = createUser(random.nextLong(), "usrA", "passwdA");
+        User userB = createUser(null, "usrB", "passwdB");
+
+        when(userService.createAll(notNull(), eq(orgId)))
+                .thenReturn(Lists.newArrayList(UserCreateResult.created(userA), UserCreateResult.conflict(userB)));
+
+        mockMvc.perform(post(uriPrefix(orgId) + "/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Lists.newArrayList(createUserCreateDto("usrA", "passwdA"), createUserCreateDto("usrB", "passwdB")))))
+                .andDo(print())
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$.[0].index", is(0)))
+                .andExpect(jsonPath("$.[0].status", is(201)))
+                .andExpect(jsonPath("$.[0].id", is(userA.getId())))
+                .andExpect(jsonPath("$.[1].index", is(1)))
+                .andExpect(jsonPath("$.[1].status", is(409)))
+                .andExpect(jsonPath("$.[1].username", is(userB.getUsername())));
+    }
+
+    @Test
+    public void createAllWithValidationErrors() throws Exception {
+        mockMvc.perform(post(uriPrefix(1L) + "/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Lists.newArrayList(createUserCreateDto("usrA", "passwdA"), createUserCreateDto("u", "passwdB")))))
+                .andDo(print()).andExpect(status().isBadRequest());
+
+        mockMvc.perform(post(uriPrefix(1L) + "/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Lists.newArrayList())))
+                .andDo(print()).andExpect(status().isBadRequest());
+
+        verify(userService, never()).createAll(any(), any());
     }
 
     @Test
@@ -119,23 +195,70 @@ public class UserControllerTest extends BaseControllerTest {
     }
 
 
+    @Test
+    public void authenticate() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        UserAuthenticateDto credentials = new UserAuthenticateDto();
+        credentials.setUsername("usrA");
+        credentials.setPassword("passwdA");
+
+        when(userService.authenticate("usrA", "passwdA", organizationA.getId())).thenReturn(7L);
+
+        mockMvc.perform(post(uriPrefix(organizationA.getId()) + "/authenticate").contentType(MediaType.APPLICATION_JSON).content(json(credentials)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(7)))
+                .andExpect(jsonPath("$.username", is("usrA")))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    public void authenticateWithWrongPassword() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        UserAuthenticateDto credentials = new UserAuthenticateDto();
+        credentials.setUsername("usrA");
+        credentials.setPassword("wrong");
+
+        when(userService.authenticate("usrA", "wrong", organizationA.getId())).thenThrow(new AuthenticationFailedException());
+
+        mockMvc.perform(post(uriPrefix(organizationA.getId()) + "/authenticate").contentType(MediaType.APPLICATION_JSON).content(json(credentials)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message", is("Invalid username or password")));
+    }
+
     @Test
     public void findById() throws Exception {
         Random random = new Random();
         Long id = random.nextLong();
         Long organizationId = random.nextLong();
         User userA = createUser(random.nextLong(), "usrA", "passwdA");
+        userA.setVersion(5L);
 
         when(userService.find(id, organizationId)).thenReturn(userA);
 
         mockMvc.perform(get(uriPrefix(organizationId) + "/" + id).contentType(MediaType.APPLICATION_JSON))
                 .andDo(print()).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
                 .andExpect(jsonPath("$.id", is(userA.getId())))
                 .andExpect(jsonPath("$.username", is(userA.getUsername())))
-                .andExpect(jsonPath("$.password", is(userA.getPassword())));
+                .andExpect(jsonPath("$.password").doesNotExist());
         verify(userService, only()).find(id, organizationId);
     }
 
+    @Test
+    public void findByIdNotModifiedReadsVersionOnly() throws Exception {
+        Random random = new Random();
+        Long id = random.nextLong();
+        Long organizationId = random.nextLong();
+
+        when(userService.findVersion(id, organizationId)).thenReturn(5L);
+
+        mockMvc.perform(get(uriPrefix(organizationId) + "/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"5\""))
+                .andDo(print()).andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(content().string(""));
+        verify(userService, only()).findVersion(id, organizationId);
+    }
+
 
     @Test
     public void findByIdNotFound() throws Exception {
@@ -162,7 +285,7 @@ public class UserControllerTest extends BaseControllerTest {
         Organization organizationA = createOrganization(random.nextLong(), "Organization A");
 
         User userAUpdated = createUser(userA.getId(), userUpdateDto.getUsername(), userUpdateDto.getPassword());
-
+        userAUpdated.setVersion(1L);
 
         when(userService.find(eq(userA.getId()), eq(organizationA.getId()))).thenReturn(userA);
         when(userService.update((User) notNull(), eq(organizationA.getId()))).thenReturn(userAUpdated);
@@ -171,9 +294,10 @@ public class UserControllerTest extends BaseControllerTest {
         mockMvc.perform(put(uriPrefix(organizationA.getId()) + "/" + userA.getId()).contentType(MediaType.APPLICATION_JSON).content(json(userUpdateDto)))
                 .andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
                 .andExpect(jsonPath("$.id", is(userAUpdated.getId())))
                 .andExpect(jsonPath("$.username", is(userAUpdated.getUsername())))
-                .andExpect(jsonPath("$.password", is(userAUpdated.getPassword())));
+                .andExpect(jsonPath("$.password").doesNotExist());
     }
 
 
@@ -251,6 +375,43 @@ public class UserControllerTest extends BaseControllerTest {
 
     }
 
+    @Test
+    public void export() throws Exception {
+        Random random = new Random();
+        User userA = createUser(random.nextLong(), "usrA", "passwdA");
+        User userB = createUser(random.nextLong(), "usrB", "passwdB");
+
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(1);
+            consumer.accept(userA);
+            consumer.accept(userB);
+            return null;
+        }).when(userService).exportAllByOrgId(eq(1L), any());
+
+        MvcResult mvcResult = mockMvc.perform(get(uriPrefix(1L) + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").doesNotContain("\n").contains("\"username\":\"usrA\"");
+        assertThat(lines[1]).contains("\"username\":\"usrB\"");
+    }
+
+    @Test
+    public void exportNotFound() throws Exception {
+        when(organizationService.findById(1L)).thenThrow(new ObjectNotFoundException("Organization", 1L));
+
+        mockMvc.perform(get(uriPrefix(1L) + "/export"))
+                .andDo(print()).andExpect(status().isNotFound());
+        verify(userService, never()).exportAllByOrgId(eq(1L), any());
+    }
+
     private String uriPrefix(Long id) {
         return "/orgs/" + id + "/users";
     }
@@ -0,0 +1,35 @@
+package com.backend.tasks.exceptions;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BusinessExceptionTest {
+    private final boolean stackTraceEnabled = BusinessException.isStackTraceEnabled();
+
+    @After
+    public void tearDown() {
+        BusinessException.setStackTraceEnabled(stackTraceEnabled);
+    }
+
+    @Test
+    public void skipsStackTraceByDefault() {
+        BusinessException.setStackTraceEnabled(false);
+
+        ObjectNotFoundException exception = new ObjectNotFoundException("User", 1L);
+
+        assertThat(exception.getStackTrace()).isEmpty();
+        assertThat(exception.getMessage()).isEqualTo("User[1] is not found");
+    }
+
+    @Test
+    public void fillsStackTraceWhenEnabled() {
+        BusinessException.setStackTraceEnabled(true);
+
+        ObjectAlreadyExistException exception = new ObjectAlreadyExistException("User", "userA");
+
+        assertThat(exception.getStackTrace()).isNotEmpty();
+        assertThat(exception.getStackTrace()[0].getMethodName()).isEqualTo("fillsStackTraceWhenEnabled");
+    }
+}
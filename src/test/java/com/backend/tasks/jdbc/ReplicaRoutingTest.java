@@ -0,0 +1,168 @@
+package com.backend.tasks.jdbc;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.exceptions.AuthenticationFailedException;
+import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.org.impl.OrganizationCache;
+import com.backend.tasks.service.user.UserService;
+import com.backend.tasks.service.user.impl.UnknownUsernameCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Read-only transactions against a second H2 database standing in for a replica. Nothing replicates between
+ * the two, so where a row is found tells which database a transaction used.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class, properties = {
+        "tasks.datasource.replica.url=" + ReplicaRoutingTest.REPLICA_URL,
+        "tasks.datasource.replica.username=sa"})
+public class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
+    @Autowired
+    private UnknownUsernameCache unknownUsernameCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Organization organization;
+
+    @BeforeClass
+    public static void migrateReplica() {
+        Flyway flyway = new Flyway();
+        flyway.setDataSource(REPLICA_URL, "sa", "");
+        flyway.setLocations("classpath:db/migration", "classpath:com/backend/tasks/migration");
+        flyway.migrate();
+    }
+
+    @Before
+    public void createPrimaryOrganization() {
+        organization = organizationService.create(createOrganization(null, "Primary organization"));
+    }
+
+    @After
+    public void tearDown() {
+        organizationCache.invalidateAll();
+        unknownUsernameCache.invalidateAll();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+        replica.update("delete from user");
+        replica.update("delete from organization");
+    }
+
+    @Test
+    public void writesGoToPrimary() {
+        User user = userService.create(createUser(null, "primary", "password"), organization.getId());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user where id = ?", Long.class, user.getId())).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from user", Long.class)).isZero();
+    }
+
+    @Test
+    public void readOnlyMethodsReadReplica() {
+        User user = userService.create(createUser(null, "primary", "password"), organization.getId());
+        replica.update("insert into organization (id, name) values (?, ?)", organization.getId(), "Replica organization");
+        replica.update("insert into user (id, username, password, org_id) values (?, ?, ?, ?)",
+                user.getId() + 1, "replica", "password", organization.getId());
+        organizationCache.invalidateAll();
+
+        assertThatThrownBy(() -> userService.find(user.getId(), organization.getId())).isInstanceOf(ObjectNotFoundException.class);
+        assertThat(userService.find(user.getId() + 1, organization.getId()).getUsername()).isEqualTo("replica");
+        assertThat(userService.findAllByOrgId(organization.getId(), null, 10).getContent())
+                .extracting(User::getUsername).containsExactly("replica");
+    }
+
+    @Test
+    public void usernameMissingFromReplicaIsConfirmedOnPrimary() {
+        User user = userService.create(createUser(null, "primary", "password"), organization.getId());
+
+        assertThat(userService.authenticate("primary", "password", organization.getId())).isEqualTo(user.getId());
+        assertThatThrownBy(() -> userService.authenticate("unknown", "password", organization.getId()))
+                .isInstanceOf(AuthenticationFailedException.class);
+        assertThat(unknownUsernameCache.isUnknown(organization.getId(), "unknown")).isTrue();
+        assertThat(unknownUsernameCache.isUnknown(organization.getId(), "primary")).isFalse();
+    }
+
+    @Test
+    public void organizationCacheIsFilledFromPrimary() {
+        replica.update("insert into organization (id, name) values (?, ?)", organization.getId(), "Replica organization");
+        assertThat(organizationService.findById(organization.getId()).getName()).isEqualTo("Primary organization");
+
+        Organization updated = organizationService.update(createOrganization(organization.getId(), "Renamed organization"));
+        Organization found = organizationService.findById(organization.getId());
+
+        assertThat(found.getVersion()).isEqualTo(updated.getVersion()).isNotEqualTo(organization.getVersion());
+        assertThat(found.getName()).isEqualTo("Renamed organization");
+    }
+
+    @Test
+    public void readOnlyTransactionsDoNotFlush() {
+        transactionTemplate.setReadOnly(true);
+        try {
+            FlushMode flushMode = transactionTemplate.execute(status -> entityManager.unwrap(Session.class).getHibernateFlushMode());
+            assertThat(flushMode).isEqualTo(FlushMode.MANUAL);
+        } finally {
+            transactionTemplate.setReadOnly(false);
+        }
+    }
+
+    @Test
+    public void replicaPoolMetricsArePublished() {
+        organizationService.findAll(null, 10);
+
+        assertThat(meterRegistry.get("hikaricp.connections.usage").tag("pool", "tasks-replica").timer().count()).isPositive();
+    }
+}
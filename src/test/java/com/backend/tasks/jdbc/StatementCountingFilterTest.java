@@ -0,0 +1,58 @@
+package com.backend.tasks.jdbc;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatementCountingFilterTest {
+
+    @Test
+    public void headerCarriesStatementsRunBeforeTheBody() throws Exception {
+        MockHttpServletResponse response = perform(new StatementCountingFilter(20, 500, true), 3);
+
+        assertThat(response.getHeader(StatementCountingFilter.STATEMENTS_HEADER)).isEqualTo("3");
+        assertThat(response.getContentAsString()).isEqualTo("body");
+    }
+
+    @Test
+    public void headerCanBeDisabled() throws Exception {
+        MockHttpServletResponse response = perform(new StatementCountingFilter(20, 500, false), 3);
+
+        assertThat(response.getHeader(StatementCountingFilter.STATEMENTS_HEADER)).isNull();
+    }
+
+    @Test
+    public void statementsOutsideRequestsAreIgnored() throws Exception {
+        perform(new StatementCountingFilter(20, 500, true), 1);
+
+        assertThat(StatementStats.current()).isNull();
+        new StatementCountingListener().afterQuery(null, null);
+    }
+
+    private static MockHttpServletResponse perform(StatementCountingFilter filter, int statements) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/orgs"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                StatementCountingListener listener = new StatementCountingListener();
+                for (int i = 0; i < statements; i++) {
+                    listener.beforeQuery(null, null);
+                    listener.afterQuery(null, null);
+                }
+                resp.getWriter().write("body");
+                resp.flushBuffer();
+                listener.beforeQuery(null, null);
+                listener.afterQuery(null, null);
+            }
+        }));
+        return response;
+    }
+}
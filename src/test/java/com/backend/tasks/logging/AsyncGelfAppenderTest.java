@@ -0,0 +1,191 @@
+package com.backend.tasks.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncGelfAppenderTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private DatagramSocket collector;
+    private AsyncGelfAppender appender;
+
+    @Before
+    public void setUp() throws Exception {
+        loggerContext = new LoggerContext();
+        logger = loggerContext.getLogger(AsyncGelfAppenderTest.class);
+        collector = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        collector.setSoTimeout(5000);
+        appender = new AsyncGelfAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test");
+        appender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        appender.setPort(collector.getLocalPort());
+        appender.setOriginHost("test-host");
+        appender.setFacility("test-facility");
+        appender.setAdditionalFields("environment=TEST, application=Backend-test-tasks");
+        appender.setFlushIntervalMillis(1);
+    }
+
+    @After
+    public void tearDown() {
+        appender.stop();
+        collector.close();
+        loggerContext.stop();
+    }
+
+    @Test
+    public void sendsGelfMessagesOverUdp() throws Exception {
+        start();
+
+        logger.error("Organization with id: {} not found", 42, new IllegalStateException("boom"));
+        JsonNode message = receive();
+
+        assertThat(message.get("version").asText()).isEqualTo("1.1");
+        assertThat(message.get("host").asText()).isEqualTo("test-host");
+        assertThat(message.get("short_message").asText()).isEqualTo("Organization with id: 42 not found");
+        assertThat(message.get("full_message").asText()).contains("java.lang.IllegalStateException: boom");
+        assertThat(message.get("level").asInt()).isEqualTo(3);
+        assertThat(message.get("_facility").asText()).isEqualTo("test-facility");
+        assertThat(message.get("_logger").asText()).isEqualTo(AsyncGelfAppenderTest.class.getName());
+        assertThat(message.get("_environment").asText()).isEqualTo("TEST");
+        assertThat(message.get("_application").asText()).isEqualTo("Backend-test-tasks");
+        awaitSentCount(1);
+    }
+
+    @Test
+    public void chunksMessagesLargerThanDatagram() throws Exception {
+        appender.setMaxChunkSize(512);
+        start();
+
+        String longMessage = StringUtils.repeat("x", 2000);
+        logger.info(longMessage);
+        JsonNode message = receive();
+
+        assertThat(message.get("short_message").asText()).isEqualTo(longMessage);
+    }
+
+    @Test
+    public void dropsEventsWhenBufferIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        appender.setTransport(blockingTransport(release));
+        appender.setQueueSize(4);
+        appender.setBatchSize(1);
+        start();
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            logger.info("event {}", i);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        release.countDown();
+
+        assertThat(elapsedMillis).isLessThan(1000);
+        assertThat(appender.getDroppedCount()).isGreaterThanOrEqualTo(100 - 4 - 1);
+    }
+
+    @Test
+    public void blockPolicyWaitsForFreeSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        appender.setTransport(blockingTransport(release));
+        appender.setQueueSize(2);
+        appender.setBatchSize(1);
+        appender.setOverflowPolicy(AsyncGelfAppender.OverflowPolicy.BLOCK);
+        start();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                logger.info("event {}", i);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+
+        release.countDown();
+        producer.join(5000);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(appender.getDroppedCount()).isZero();
+    }
+
+    /**
+     * The sender counts a batch after the transport returned, which can be after the collector received it.
+     */
+    private void awaitSentCount(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appender.getSentCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(appender.getSentCount()).isEqualTo(expected);
+    }
+
+    private void start() {
+        appender.start();
+        assertThat(appender.isStarted()).isTrue();
+        logger.addAppender(appender);
+    }
+
+    private GelfTransport blockingTransport(CountDownLatch release) {
+        return new GelfTransport() {
+            @Override
+            public void send(List<byte[]> messages) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Reads one GELF message from the collector socket, reassembling it when it arrives in chunks.
+     */
+    private JsonNode receive() throws Exception {
+        byte[] datagram = receiveDatagram();
+        if (datagram[0] != 0x1e || datagram[1] != 0x0f) {
+            return objectMapper.readTree(datagram);
+        }
+        int count = datagram[11];
+        byte[][] chunks = new byte[count][];
+        for (int received = 0; received < count; received++) {
+            chunks[datagram[10]] = Arrays.copyOfRange(datagram, UdpGelfTransport.CHUNK_HEADER_SIZE, datagram.length);
+            if (received + 1 < count) {
+                datagram = receiveDatagram();
+            }
+        }
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            message.write(chunk);
+        }
+        return objectMapper.readTree(message.toByteArray());
+    }
+
+    private byte[] receiveDatagram() throws Exception {
+        DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+        collector.receive(packet);
+        return Arrays.copyOf(packet.getData(), packet.getLength());
+    }
+}
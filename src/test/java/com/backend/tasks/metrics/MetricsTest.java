@@ -0,0 +1,119 @@
+package com.backend.tasks.metrics;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.exceptions.ExceptionTranslator;
+import com.backend.tasks.exceptions.ObjectAlreadyExistException;
+import com.backend.tasks.logging.AsyncGelfAppender;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.service.org.OrganizationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureMockMvc
+@SpringBootTest(classes = ApplicationTest.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsTest {
+
+    /**
+     * The auto-configured MockMvc, which unlike BaseControllerTest's includes the filter timing http.server.requests.
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @After
+    public void tearDown() {
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void serviceCallsAreTimedByOutcome() {
+        long ok = serviceCount("create", "ok");
+        long conflict = serviceCount("create", "conflict");
+
+        organizationService.create(createOrganization(null, "Metrics"));
+        assertThatThrownBy(() -> organizationService.create(createOrganization(null, "Metrics")))
+                .isInstanceOf(ObjectAlreadyExistException.class);
+
+        assertThat(serviceCount("create", "ok")).isEqualTo(ok + 1);
+        assertThat(serviceCount("create", "conflict")).isEqualTo(conflict + 1);
+    }
+
+    @Test
+    public void notFoundIsTimedAndCounted() throws Exception {
+        long notFound = serviceCount("findById", "not_found");
+        double handled = handledCount("ObjectNotFoundException", "404");
+
+        mockMvc.perform(get("/orgs/{orgId}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        assertThat(serviceCount("findById", "not_found")).isEqualTo(notFound + 1);
+        assertThat(handledCount("ObjectNotFoundException", "404")).isEqualTo(handled + 1);
+    }
+
+    @Test
+    public void prometheusEndpointExportsHistograms() throws Exception {
+        organizationService.create(createOrganization(null, "Scraped"));
+        mockMvc.perform(get("/orgs")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("tasks_service_seconds_bucket{")
+                .contains("cache=\"organizations\"");
+    }
+
+    @Test
+    public void gelfAppenderCountersAreBound() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AsyncGelfAppender appender = new AsyncGelfAppender();
+        appender.setName("GRAYLOG");
+
+        GelfAppenderMetrics.bind(registry, appender);
+
+        assertThat(registry.get("tasks.logging.gelf.sent").tag("appender", "GRAYLOG").functionCounter().count()).isZero();
+        assertThat(registry.get("tasks.logging.gelf.dropped").functionCounter()).isNotNull();
+        assertThat(registry.get("tasks.logging.gelf.failed").functionCounter()).isNotNull();
+        assertThat(registry.get("tasks.logging.gelf.queued").gauge().value()).isZero();
+    }
+
+    private long serviceCount(String method, String outcome) {
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER_NAME)
+                .tags("service", "OrganizationServiceImpl", "method", method, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double handledCount(String exception, String status) {
+        Counter counter = meterRegistry.find(ExceptionTranslator.COUNTER_NAME)
+                .tags("exception", exception, "status", status)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
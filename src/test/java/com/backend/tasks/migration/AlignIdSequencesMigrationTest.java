@@ -0,0 +1,88 @@
+package com.backend.tasks.migration;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.repository.OrganizationRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class AlignIdSequencesMigrationTest {
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void tearDown() {
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void migrationsAreApplied() {
+        assertThat(jdbcTemplate.queryForList("select \"version\" from \"flyway_schema_history\" where \"success\" order by \"installed_rank\"", String.class))
+                .containsExactly("1", "2", "3", "4", "5");
+    }
+
+    @Test
+    public void sequenceAllocatesConfiguredBlock() {
+        long first = nextValue();
+        long second = nextValue();
+
+        assertThat(second - first).isEqualTo(50);
+    }
+
+    @Test
+    public void alignMovesSequencePastExistingIds() {
+        long existingId = nextValue() + 10_000;
+        jdbcTemplate.update("insert into organization (id, name) values (?, ?)", existingId, "legacy");
+
+        align();
+
+        assertThat(nextValue()).isEqualTo(existingId + 1);
+    }
+
+    @Test
+    public void alignKeepsSequenceAheadOfExistingIds() {
+        long existingId = nextValue();
+        jdbcTemplate.update("insert into organization (id, name) values (?, ?)", existingId, "legacy");
+
+        align();
+
+        assertThat(nextValue()).isGreaterThan(existingId + 50);
+    }
+
+    @Test
+    public void alignCreatesMissingSequenceAfterExistingIds() {
+        long existingId = nextValue() + 10_000;
+        jdbcTemplate.update("insert into organization (id, name) values (?, ?)", existingId, "legacy");
+        jdbcTemplate.execute("drop sequence organization_seq");
+
+        align();
+
+        long first = nextValue();
+        assertThat(first).isEqualTo(existingId + 1);
+        assertThat(nextValue() - first).isEqualTo(50);
+    }
+
+    private void align() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            new V2__Align_id_sequences().migrate(connection);
+            return null;
+        });
+    }
+
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("select next value for organization_seq", Long.class);
+    }
+}
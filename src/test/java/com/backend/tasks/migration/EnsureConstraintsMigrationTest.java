@@ -0,0 +1,60 @@
+package com.backend.tasks.migration;
+
+import com.backend.tasks.ApplicationTest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class EnsureConstraintsMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * The foreign key is dropped as well because it uses idx_user_org_id_id; it is put back afterwards.
+     */
+    @Test
+    public void missingConstraintsAndIndexesAreAdded() {
+        jdbcTemplate.execute("alter table user drop constraint fk_user_organization");
+        jdbcTemplate.execute("alter table organization drop constraint uk_organization_name");
+        jdbcTemplate.execute("alter table user drop constraint uk_user_org_id_username");
+        jdbcTemplate.execute("drop index idx_user_username");
+        jdbcTemplate.execute("drop index idx_user_org_id_id");
+        try {
+            migrate();
+
+            assertThat(count("select count(*) from information_schema.constraints where constraint_name in ('UK_ORGANIZATION_NAME', 'UK_USER_ORG_ID_USERNAME')")).isEqualTo(2);
+            assertThat(count("select count(distinct index_name) from information_schema.indexes where index_name in ('IDX_USER_USERNAME', 'IDX_USER_ORG_ID_ID')")).isEqualTo(2);
+        } finally {
+            jdbcTemplate.execute("alter table user add constraint fk_user_organization foreign key (org_id) references organization (id)");
+        }
+    }
+
+    @Test
+    public void existingConstraintsAndIndexesAreKept() {
+        long indexes = count("select count(*) from information_schema.indexes");
+
+        migrate();
+
+        assertThat(count("select count(*) from information_schema.indexes")).isEqualTo(indexes);
+    }
+
+    private void migrate() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            new V5__Ensure_constraints_and_indexes().migrate(connection);
+            return null;
+        });
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
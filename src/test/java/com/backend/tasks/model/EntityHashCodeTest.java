@@ -0,0 +1,65 @@
+package com.backend.tasks.model;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keeps new entities in hash sets while they are persisted: the id they get must not move them to another bucket.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class EntityHashCodeTest {
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void organizationStaysInSetAcrossPersist() {
+        Organization organization = createOrganization(null, "Organization A");
+        Set<Organization> organizations = new HashSet<>();
+        organizations.add(organization);
+
+        organizationRepository.saveAndFlush(organization);
+
+        assertThat(organization.getId()).isNotNull();
+        assertThat(organizations.contains(organization)).isTrue();
+        assertThat(organizations.contains(createOrganization(organization.getId(), "Organization A"))).isTrue();
+    }
+
+    @Test
+    public void userStaysInSetAcrossPersist() {
+        Organization organization = organizationRepository.saveAndFlush(createOrganization(null, "Organization A"));
+        User user = createUser(null, "user", "password");
+        user.setOrganization(organization);
+        Set<User> users = new HashSet<>();
+        users.add(user);
+
+        userRepository.saveAndFlush(user);
+
+        assertThat(user.getId()).isNotNull();
+        assertThat(users.contains(user)).isTrue();
+        assertThat(users.contains(createUser(user.getId(), "user", "password"))).isTrue();
+    }
+}
@@ -0,0 +1,170 @@
+package com.backend.tasks.repository;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.OrganizationDeletion;
+import com.backend.tasks.model.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every query and delete method declared on the repositories, asks H2 to EXPLAIN the SQL it issued and fails
+ * when a plan reads a whole table. A new finder has to be added here, otherwise {@link #everyFinderIsChecked} fails.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.backend.tasks.repository.RecordingStatementInspector")
+public class QueryPlanTest {
+    private static final int ORGANIZATIONS = 20;
+    private static final int USERS_PER_ORGANIZATION = 20;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationDeletionRepository organizationDeletionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long orgId;
+    private Long userId;
+    private Long deletionId;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < ORGANIZATIONS; i++) {
+            Organization organization = organizationRepository.save(createOrganization(null, "Organization " + i));
+            for (int j = 0; j < USERS_PER_ORGANIZATION; j++) {
+                User user = createUser(null, "user" + j, "password");
+                user.setOrganization(organization);
+                userId = userRepository.save(user).getId();
+            }
+            orgId = organization.getId();
+        }
+        OrganizationDeletion deletion = new OrganizationDeletion();
+        deletion.setOrgId(orgId);
+        deletion.setStatus(OrganizationDeletion.Status.RUNNING);
+        deletion.setCreatedAt(Instant.now());
+        deletionId = organizationDeletionRepository.save(deletion).getId();
+        jdbcTemplate.execute("analyze");
+        RecordingStatementInspector.drain();
+    }
+
+    @After
+    public void tearDown() {
+        organizationDeletionRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void everyFinderIsChecked() {
+        Set<String> declared = Stream.of(OrganizationRepository.class, UserRepository.class, OrganizationDeletionRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .filter(method -> !method.isSynthetic() && !method.isDefault())
+                .map(Method::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertThat(finders().keySet()).containsExactlyInAnyOrderElementsOf(declared);
+    }
+
+    @Test
+    public void findersDoNotScanTables() {
+        List<String> tableScans = new ArrayList<>();
+        finders().forEach((name, finder) -> {
+            transactionTemplate.execute(status -> {
+                finder.run();
+                return null;
+            });
+            List<String> statements = RecordingStatementInspector.drain();
+            assertThat(statements).as(name + " issued no statement").isNotEmpty();
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    tableScans.add(name + ": " + plan);
+                }
+            }
+        });
+
+        assertThat(tableScans).isEmpty();
+    }
+
+    private Map<String, Runnable> finders() {
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("findByName", () -> organizationRepository.findByName("Organization 1"));
+        finders.put("findByIdGreaterThanAndDeletingFalseOrderByIdAsc", () -> organizationRepository.findByIdGreaterThanAndDeletingFalseOrderByIdAsc(orgId, PageRequest.of(0, 10)));
+        finders.put("findWithUsersById", () -> organizationRepository.findWithUsersById(orgId));
+        finders.put("findWithUsersByIdIn", () -> organizationRepository.findWithUsersByIdIn(Arrays.asList(orgId, orgId - 1)));
+        finders.put("findByUsername", () -> userRepository.findByUsername("user-unique"));
+        finders.put("findByUsernameAndOrganizationId", () -> userRepository.findByUsernameAndOrganizationId("user1", orgId));
+        finders.put("findUsernamesByOrganizationIdAndUsernameIn", () -> userRepository.findUsernamesByOrganizationIdAndUsernameIn(orgId, Arrays.asList("user1", "user2")));
+        finders.put("findByIdAndOrganizationId", () -> userRepository.findByIdAndOrganizationId(userId, orgId));
+        finders.put("findVersionByIdAndOrganizationId", () -> userRepository.findVersionByIdAndOrganizationId(userId, orgId));
+        finders.put("findByOrganizationId", () -> userRepository.findByOrganizationId(orgId));
+        finders.put("findByOrganizationIdAndIdGreaterThanOrderByIdAsc", () -> userRepository.findByOrganizationIdAndIdGreaterThanOrderByIdAsc(orgId, userId - 5, PageRequest.of(0, 10)));
+        finders.put("countByOrganizationId", () -> userRepository.countByOrganizationId(orgId));
+        finders.put("findIdsByOrganizationId", () -> userRepository.findIdsByOrganizationId(orgId, PageRequest.of(0, 10)));
+        finders.put("findByStatus", () -> organizationDeletionRepository.findByStatus(OrganizationDeletion.Status.RUNNING));
+        finders.put("findFirstByOrgIdAndStatusOrderByIdDesc", () -> organizationDeletionRepository.findFirstByOrgIdAndStatusOrderByIdDesc(orgId, OrganizationDeletion.Status.FAILED));
+        finders.put("restartFailed", () -> organizationDeletionRepository.restartFailed(deletionId));
+        finders.put("addDeletedUsers", () -> organizationDeletionRepository.addDeletedUsers(deletionId, 10));
+        finders.put("updatePasswordByIdAndPassword", () -> userRepository.updatePasswordByIdAndPassword(userId, "password", "password"));
+        finders.put("streamByOrganizationId", () -> {
+            try (Stream<User> users = userRepository.streamByOrganizationId(orgId)) {
+                users.forEach(user -> {
+                });
+            }
+        });
+        // Deletes run last, they remove part of the seeded data
+        finders.put("deleteByIdAndOrganizationId", () -> userRepository.deleteByIdAndOrganizationId(userId, orgId));
+        finders.put("deleteByIdIn", () -> userRepository.deleteByIdIn(Arrays.asList(userId - 1, userId - 2)));
+        finders.put("deleteByOrganizationId", () -> userRepository.deleteByOrganizationId(orgId));
+        finders.put("markDeleting", () -> organizationRepository.markDeleting(orgId - 1));
+        finders.put("deleteDeletingOrganizationById", () -> {
+            userRepository.deleteByOrganizationId(orgId - 1);
+            organizationRepository.deleteDeletingOrganizationById(orgId - 1);
+        });
+        return Collections.unmodifiableMap(finders);
+    }
+
+    /**
+     * Parameters are replaced by a literal so H2 can plan the statement; the chosen index does not depend on the value.
+     */
+    private String explain(String sql) {
+        String literalSql = sql.replace("?", "1");
+        return String.join("\n", jdbcTemplate.queryForList("explain " + literalSql, String.class));
+    }
+}
@@ -0,0 +1,108 @@
+package com.backend.tasks.service;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.jdbc.StatementStats;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Deletes in an organization with {@value #USERS} users. Each delete must be a fixed number of statements,
+ * and the whole organization must go well within {@value #BUDGET_MILLIS} ms.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class LargeOrganizationDeleteTest {
+    private static final Logger log = LoggerFactory.getLogger(LargeOrganizationDeleteTest.class);
+
+    private static final int USERS = 100_000;
+    private static final long FIRST_USER_ID = 1_000_000_000L;
+    private static final long BUDGET_MILLIS = 10_000;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long orgId;
+
+    @Before
+    public void setUp() {
+        orgId = organizationService.create(createOrganization(null, "Large organization")).getId();
+        jdbcTemplate.update("insert into user (id, username, password, org_id) "
+                + "select x + ?, 'user' || x, 'password', ? from system_range(1, ?)", FIRST_USER_ID - 1, orgId, USERS);
+    }
+
+    @After
+    public void tearDown() {
+        StatementStats.end();
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void deleteOrganizationWithAllUsers() {
+        StatementStats stats = StatementStats.begin();
+        long start = System.nanoTime();
+
+        organizationService.delete(orgId);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Deleted organization with {} users in {} ms, {} statements", USERS, millis, stats.getCount());
+        // claim the organization row, delete the users, delete the organization
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(millis).isLessThan(BUDGET_MILLIS);
+        assertThat(userRepository.count()).isZero();
+        assertThat(organizationRepository.existsById(orgId)).isFalse();
+    }
+
+    @Test
+    public void deleteUserOfLargeOrganization() {
+        StatementStats stats = StatementStats.begin();
+
+        userService.delete(FIRST_USER_ID, orgId);
+
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(userRepository.count()).isEqualTo(USERS - 1);
+    }
+
+    @Test
+    public void deleteUserOfOtherOrganizationIsNotFound() {
+        Organization other = organizationService.create(createOrganization(null, "Other organization"));
+        StatementStats stats = StatementStats.begin();
+
+        assertThatThrownBy(() -> userService.delete(FIRST_USER_ID, other.getId())).isInstanceOf(ObjectNotFoundException.class);
+
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(userRepository.count()).isEqualTo(USERS);
+    }
+}
@@ -0,0 +1,100 @@
+package com.backend.tasks.service;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.impl.OrganizationCache;
+import com.backend.tasks.service.user.UserService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * As many concurrent user reads as the pool has connections, each missing the organization cache.
+ * The misses are held until all of them are pending, so a miss loaded while its read holds a connection
+ * would wait for a connection no read gives back.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+@ActiveProfiles("pooled")
+public class OrganizationCacheMissConcurrencyTest {
+    private static final int POOL_SIZE = 10;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private OrganizationCache organizationCache;
+
+    private final List<Long> orgIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            Organization organization = organizationRepository.save(createOrganization(null, "Organization " + i));
+            User user = createUser(null, "user" + i, "password");
+            user.setOrganization(organization);
+            userRepository.save(user);
+            orgIds.add(organization.getId());
+        }
+        organizationCache.invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void poolSizeConcurrentCacheMisses() throws Exception {
+        CyclicBarrier allMissed = new CyclicBarrier(POOL_SIZE);
+        doAnswer(invocation -> {
+            allMissed.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(organizationCache).getById(anyLong(), any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+        List<Future<Slice<User>>> futures = new ArrayList<>();
+        for (Long orgId : orgIds) {
+            futures.add(executor.submit(() -> userService.findAllByOrgId(orgId, null, 10)));
+        }
+        try {
+            for (Future<Slice<User>> future : futures) {
+                assertThat(future.get(20, TimeUnit.SECONDS).getContent()).hasSize(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.backend.tasks.service;
+
+import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.exceptions.ObjectAlreadyExistException;
+import com.backend.tasks.model.Organization;
+import com.backend.tasks.model.User;
+import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
+import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.user.UserService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.createUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires parallel duplicate creates against the real database: exactly one wins, the rest get a conflict.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ApplicationTest.class)
+public class UniqueConstraintConcurrencyTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrganizationRepository organizationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @After
+    public void tearDown() {
+        userRepository.deleteAllInBatch();
+        organizationRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void parallelOrganizationCreatesWithSameName() throws Exception {
+        List<Throwable> failures = createConcurrently(() -> organizationService.create(createOrganization(null, "Organization A")));
+
+        assertThat(failures).hasSize(THREADS - 1);
+        assertThat(failures).allMatch(ObjectAlreadyExistException.class::isInstance);
+        assertThat(organizationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void parallelUserCreatesWithSameUsername() throws Exception {
+        Organization organization = organizationService.create(createOrganization(null, "Organization A"));
+
+        List<Throwable> failures = createConcurrently(() -> userService.create(createUser(null, "userA", "userpasswordA"), organization.getId()));
+
+        assertThat(failures).hasSize(THREADS - 1);
+        assertThat(failures).allMatch(ObjectAlreadyExistException.class::isInstance);
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void sameUsernameInDifferentOrganizations() throws Exception {
+        Organization organizationA = organizationService.create(createOrganization(null, "Organization A"));
+        Organization organizationB = organizationService.create(createOrganization(null, "Organization B"));
+
+        User userA = userService.create(createUser(null, "userA", "userpasswordA"), organizationA.getId());
+        User userB = userService.create(createUser(null, "userA", "userpasswordA"), organizationB.getId());
+
+        assertThat(userA.getId()).isNotEqualTo(userB.getId());
+    }
+
+    /**
+     * Starts the same create on all threads at once and returns the failures.
+     */
+    private List<Throwable> createConcurrently(Callable<?> create) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return create.call();
+            }));
+        }
+        start.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        executor.shutdown();
+        return failures;
+    }
+}
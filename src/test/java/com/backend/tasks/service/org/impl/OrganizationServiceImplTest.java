@@ -4,23 +4,33 @@ import com.backend.tasks.ApplicationTest;
 import com.backend.tasks.exceptions.CustomValidationException;
 import com.backend.tasks.exceptions.ObjectAlreadyExistException;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.exceptions.PreconditionFailedException;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.repository.OrganizationRepository;
+import com.backend.tasks.repository.UserRepository;
 import com.backend.tasks.service.org.OrganizationService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.common.collect.Lists;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.List;
 import java.util.Optional;
 
 import static com.backend.tasks.utils.TestUtils.createOrganization;
+import static com.backend.tasks.utils.TestUtils.uniqueViolation;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.doNothing;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -35,13 +45,24 @@ public class OrganizationServiceImplTest {
     @MockBean
     private OrganizationRepository organizationRepository;
 
+    @MockBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganizationCache organizationCache;
+
+    @Before
+    public void setUp() {
+        organizationCache.invalidateAll();
+    }
 
     @Test
     public void findAll() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         Organization organizationB = createOrganization(2L, "Organization B");
-        when(organizationRepository.findAll()).thenReturn(Lists.newArrayList(organizationA, organizationB));
-        List<Organization> allOrganizations = organizationService.findAll();
+        when(organizationRepository.findByIdGreaterThanAndDeletingFalseOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(organizationA, organizationB), PageRequest.of(0, 2), true));
+        List<Organization> allOrganizations = organizationService.findAll(null, 2).getContent();
 
         assertThat(allOrganizations.size()).isEqualTo(2);
         assertThat(allOrganizations.get(0)).isEqualTo(organizationA);
@@ -53,7 +74,7 @@ public class OrganizationServiceImplTest {
         Organization organizationA = createOrganization(null, "Organization A");
         Organization createdOrganizationA = createOrganization(1L, "Organization A");
 
-        when(organizationRepository.save(organizationA)).thenReturn(createdOrganizationA);
+        when(organizationRepository.saveAndFlush(organizationA)).thenReturn(createdOrganizationA);
 
         Organization createdOrganization = organizationService.create(organizationA);
 
@@ -65,7 +86,7 @@ public class OrganizationServiceImplTest {
         Organization organizationA = createOrganization(null, "Organization A");
         Organization createdOrganizationA = createOrganization(1L, "Organization A");
 
-        when(organizationRepository.findByName(organizationA.getName())).thenReturn(createdOrganizationA);
+        when(organizationRepository.saveAndFlush(organizationA)).thenThrow(uniqueViolation(Organization.NAME_CONSTRAINT));
 
         Organization createdOrganization = organizationService.create(organizationA);
 
@@ -82,14 +103,59 @@ public class OrganizationServiceImplTest {
         assertThat(organizationById).isEqualTo(organizationA);
     }
 
+    @Test
+    public void findByIdIsCached() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        when(organizationRepository.findById(organizationA.getId())).thenReturn(Optional.of(organizationA));
+        CacheStats statsBefore = organizationCache.byIdStats();
+
+        Organization first = organizationService.findById(organizationA.getId());
+        first.setName("Changed by caller");
+        Organization second = organizationService.findById(organizationA.getId());
+
+        verify(organizationRepository, times(1)).findById(organizationA.getId());
+        assertThat(first).isNotSameAs(organizationA);
+        assertThat(second.getName()).isEqualTo("Organization A");
+        CacheStats stats = organizationCache.byIdStats().minus(statsBefore);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByIdDoesNotCacheMissing() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        when(organizationRepository.findById(organizationA.getId()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(organizationA));
+
+        assertThatThrownBy(() -> organizationService.findById(organizationA.getId()))
+                .isInstanceOf(ObjectNotFoundException.class);
+        assertThat(organizationService.findById(organizationA.getId())).isEqualTo(organizationA);
+    }
+
+    @Test
+    public void updateEvictsCachedOrganization() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        Organization updatedOrganizationA = createOrganization(1L, "Organization updated name");
+        when(organizationRepository.findById(organizationA.getId()))
+                .thenReturn(Optional.of(organizationA))
+                .thenReturn(Optional.of(organizationA))
+                .thenReturn(Optional.of(updatedOrganizationA));
+        when(organizationRepository.saveAndFlush(updatedOrganizationA)).thenReturn(updatedOrganizationA);
+
+        organizationService.findById(organizationA.getId());
+        organizationService.update(updatedOrganizationA);
+
+        assertThat(organizationService.findById(organizationA.getId()).getName()).isEqualTo("Organization updated name");
+    }
+
     @Test
     public void update() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         Organization updatedOrganizationA = createOrganization(1L, "Organization updated name");
 
         when(organizationRepository.findById(organizationA.getId())).thenReturn(Optional.ofNullable(organizationA));
-        when(organizationRepository.findByName(updatedOrganizationA.getName())).thenReturn(null);
-        when(organizationRepository.save(updatedOrganizationA)).thenReturn(updatedOrganizationA);
+        when(organizationRepository.saveAndFlush(updatedOrganizationA)).thenReturn(updatedOrganizationA);
 
         Organization updatedOrganization = organizationService.update(updatedOrganizationA);
 
@@ -97,15 +163,25 @@ public class OrganizationServiceImplTest {
         assertThat(updatedOrganization.getName()).isEqualTo(updatedOrganizationA.getName());
     }
 
+    @Test(expected = PreconditionFailedException.class)
+    public void updateWithStaleVersion() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        organizationA.setVersion(2L);
+        Organization updatedOrganizationA = createOrganization(1L, "Organization updated name");
+        updatedOrganizationA.setVersion(1L);
+
+        when(organizationRepository.findById(organizationA.getId())).thenReturn(Optional.of(organizationA));
+
+        organizationService.update(updatedOrganizationA);
+    }
+
     @Test(expected = CustomValidationException.class)
     public void updateWithExistedName() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         Organization updatedOrganizationA = createOrganization(1L, "Organization updated name");
-        Organization organizationB = createOrganization(2L, "Organization updated name");
 
         when(organizationRepository.findById(organizationA.getId())).thenReturn(Optional.ofNullable(organizationA));
-        when(organizationRepository.findByName(updatedOrganizationA.getName())).thenReturn(organizationB);
-        when(organizationRepository.save(updatedOrganizationA)).thenReturn(updatedOrganizationA);
+        when(organizationRepository.saveAndFlush(updatedOrganizationA)).thenThrow(uniqueViolation(Organization.NAME_CONSTRAINT));
 
         Organization updatedOrganization = organizationService.update(updatedOrganizationA);
     }
@@ -119,16 +195,33 @@ public class OrganizationServiceImplTest {
 
     }
 
-    @Test(expected = ObjectNotFoundException.class)
+    @Test
     public void delete() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
 
-        doNothing().when(organizationRepository).deleteById(organizationA.getId());
-        when(organizationRepository.findById(organizationA.getId())).thenReturn(Optional.ofNullable(null));
+        when(organizationRepository.markDeleting(organizationA.getId())).thenReturn(1);
+        when(userRepository.deleteByOrganizationId(organizationA.getId())).thenReturn(3);
+        when(organizationRepository.deleteDeletingOrganizationById(organizationA.getId())).thenReturn(1);
 
         organizationService.delete(organizationA.getId());
 
-        Organization organizationById = organizationService.findById(organizationA.getId());
+        verify(organizationRepository).markDeleting(organizationA.getId());
+        verify(userRepository).deleteByOrganizationId(organizationA.getId());
+        verify(organizationRepository).deleteDeletingOrganizationById(organizationA.getId());
+        verify(organizationRepository, never()).findById(organizationA.getId());
+    }
+
+    @Test(expected = ObjectNotFoundException.class)
+    public void deleteNotExisted() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+
+        when(organizationRepository.markDeleting(organizationA.getId())).thenReturn(0);
+
+        try {
+            organizationService.delete(organizationA.getId());
+        } finally {
+            verify(userRepository, never()).deleteByOrganizationId(organizationA.getId());
+        }
     }
 
 }
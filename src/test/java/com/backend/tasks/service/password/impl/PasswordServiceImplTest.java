@@ -0,0 +1,117 @@
+package com.backend.tasks.service.password.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PasswordServiceImplTest {
+    private static final int BULK_WINDOW = 2;
+
+    private ThreadPoolTaskExecutor executor;
+    private PasswordServiceImpl passwordService;
+
+    @Before
+    public void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.initialize();
+        passwordService = new PasswordServiceImpl(executor, 4, BULK_WINDOW);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void hashMatchesOnlyItsPassword() {
+        String hash = passwordService.hash("userpasswordA");
+
+        assertThat(hash).startsWith("$2a$04$").isNotEqualTo("userpasswordA");
+        assertThat(passwordService.matches("userpasswordA", hash)).isTrue();
+        assertThat(passwordService.matches("userpasswordB", hash)).isFalse();
+        assertThat(passwordService.needsRehash(hash)).isFalse();
+    }
+
+    @Test
+    public void hashAllKeepsOrder() {
+        List<String> hashes = passwordService.hashAll(Arrays.asList("a", "b", "c"));
+
+        assertThat(hashes).hasSize(3);
+        assertThat(passwordService.matches("a", hashes.get(0))).isTrue();
+        assertThat(passwordService.matches("c", hashes.get(2))).isTrue();
+    }
+
+    @Test
+    public void hashAllQueuesAtMostTheBulkWindow() {
+        AtomicInteger queued = new AtomicInteger();
+        AtomicInteger maxQueued = new AtomicInteger();
+        Executor counting = task -> {
+            maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+            executor.execute(() -> {
+                queued.decrementAndGet();
+                task.run();
+            });
+        };
+        List<String> passwords = IntStream.range(0, 10).mapToObj(i -> "password" + i).collect(Collectors.toList());
+
+        List<String> hashes = new PasswordServiceImpl(counting, 4, BULK_WINDOW).hashAll(passwords);
+
+        assertThat(hashes).hasSize(10);
+        assertThat(passwordService.matches("password9", hashes.get(9))).isTrue();
+        assertThat(maxQueued.get()).isLessThanOrEqualTo(BULK_WINDOW);
+    }
+
+    @Test
+    public void otherCostNeedsRehash() {
+        String hash = new PasswordServiceImpl(executor, 5, BULK_WINDOW).hash("userpasswordA");
+
+        assertThat(passwordService.matches("userpasswordA", hash)).isTrue();
+        assertThat(passwordService.needsRehash(hash)).isTrue();
+    }
+
+    @Test
+    public void plainTextPasswordMatchesAndNeedsRehash() {
+        assertThat(passwordService.matches("userpasswordA", "userpasswordA")).isTrue();
+        assertThat(passwordService.matches("userpasswordB", "userpasswordA")).isFalse();
+        assertThat(passwordService.matches(null, "userpasswordA")).isFalse();
+        assertThat(passwordService.needsRehash("userpasswordA")).isTrue();
+    }
+
+    @Test
+    public void fullQueueRejects() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            assertThatThrownBy(() -> passwordService.hash("userpasswordA")).isInstanceOf(TaskRejectedException.class);
+            assertThatThrownBy(() -> passwordService.hashAll(Collections.singletonList("userpasswordA")))
+                    .isInstanceOf(TaskRejectedException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.backend.tasks.service.user.impl;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UnknownUsernameCacheTest {
+    private final UnknownUsernameCache cache = new UnknownUsernameCache(100, 60);
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void unknownUsernameIsCached() {
+        cache.putUnknown(1L, "bob", cache.stamp(1L, "bob"));
+
+        assertThat(cache.isUnknown(1L, "bob")).isTrue();
+        assertThat(cache.isUnknown(2L, "bob")).isFalse();
+    }
+
+    @Test
+    public void evictedUsernameIsNotCachedWithAnOlderStamp() {
+        long stamp = cache.stamp(1L, "bob");
+        cache.evict(1L, "bob");
+
+        cache.putUnknown(1L, "bob", stamp);
+
+        assertThat(cache.isUnknown(1L, "bob")).isFalse();
+    }
+
+    /**
+     * The lookup starts after the user was inserted but reads before the insert commits, and caches after it did.
+     */
+    @Test
+    public void lookupOverlappingTheCommitIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(1L, "bob");
+        long stamp = cache.stamp(1L, "bob");
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        cache.putUnknown(1L, "bob", stamp);
+
+        assertThat(cache.isUnknown(1L, "bob")).isFalse();
+    }
+}
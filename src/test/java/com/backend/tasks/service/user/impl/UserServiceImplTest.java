@@ -1,32 +1,53 @@
 package com.backend.tasks.service.user.impl;
 
 import com.backend.tasks.ApplicationTest;
+import com.backend.tasks.exceptions.AuthenticationFailedException;
 import com.backend.tasks.exceptions.CustomValidationException;
 import com.backend.tasks.exceptions.ExceptionTranslator;
 import com.backend.tasks.exceptions.ObjectAlreadyExistException;
 import com.backend.tasks.exceptions.ObjectNotFoundException;
+import com.backend.tasks.exceptions.PreconditionFailedException;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.model.User;
+import com.backend.tasks.repository.UserCredentials;
 import com.backend.tasks.repository.UserRepository;
 import com.backend.tasks.service.org.OrganizationService;
+import com.backend.tasks.service.password.PasswordService;
+import com.backend.tasks.service.user.UserCreateResult;
 import com.backend.tasks.service.user.UserService;
 import com.google.common.collect.Lists;
 import org.assertj.core.api.Assertions;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static com.backend.tasks.utils.TestUtils.createOrganization;
 import static com.backend.tasks.utils.TestUtils.createUser;
+import static com.backend.tasks.utils.TestUtils.uniqueViolation;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -45,6 +66,17 @@ public class UserServiceImplTest {
     @MockBean
     private OrganizationService organizationService;
 
+    @SpyBean
+    private PasswordService passwordService;
+
+    @Autowired
+    private UnknownUsernameCache unknownUsernameCache;
+
+    @After
+    public void tearDown() {
+        unknownUsernameCache.invalidateAll();
+    }
+
     @Test
     public void create() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
@@ -52,24 +84,92 @@ public class UserServiceImplTest {
         User createdUserA = createUser(1L, "userA", "userpasswordA");
 
         when(organizationService.findById(organizationA.getId())).thenReturn(organizationA);
-        when(userRepository.findByUsernameAndOrganizationId(userA.getUsername(), organizationA.getId())).thenReturn(null);
-        when(userRepository.save(userA)).thenReturn(createdUserA);
+        when(userRepository.saveAndFlush(userA)).thenReturn(createdUserA);
 
         User createdUser = userService.create(userA, organizationA.getId());
 
         assertThat(createdUser).isEqualTo(createdUserA);
+        assertThat(userA.getPassword()).startsWith("$2a$10$");
+        assertThat(passwordService.matches("userpasswordA", userA.getPassword())).isTrue();
+    }
+
+    @Test
+    public void createAll() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(null, "userA", "userpasswordA");
+        User userB = createUser(null, "userB", "userpasswordB");
+        User userADuplicate = createUser(null, "userA", "userpasswordC");
+        User existingUsername = createUser(null, "existing", "userpasswordD");
+
+        when(organizationService.findById(organizationA.getId())).thenReturn(organizationA);
+        when(userRepository.findUsernamesByOrganizationIdAndUsernameIn(eq(organizationA.getId()), anyCollection()))
+                .thenReturn(Lists.newArrayList("existing"));
+        when(userRepository.save(any(User.class))).then(invocation -> invocation.getArgument(0));
+
+        List<UserCreateResult> results = userService.createAll(
+                Lists.newArrayList(userA, userB, userADuplicate, existingUsername), organizationA.getId());
+
+        assertThat(results).extracting(UserCreateResult::isCreated).containsExactly(true, true, false, false);
+        assertThat(results).extracting(UserCreateResult::getUser).containsExactly(userA, userB, userADuplicate, existingUsername);
+        assertThat(userA.getOrganization()).isEqualTo(organizationA);
+        assertThat(passwordService.matches("userpasswordA", userA.getPassword())).isTrue();
+        assertThat(passwordService.matches("userpasswordB", userB.getPassword())).isTrue();
+        assertThat(userADuplicate.getPassword()).isEqualTo("userpasswordC");
+        verify(userRepository, times(2)).save(any(User.class));
+        // once before hashing, once more in the insert transaction for the usernames found free
+        verify(userRepository, times(2)).findUsernamesByOrganizationIdAndUsernameIn(eq(organizationA.getId()), anyCollection());
+    }
+
+    @Test
+    public void createAllReportsUsernamesTakenWhileHashing() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(null, "userA", "userpasswordA");
+        User userB = createUser(null, "userB", "userpasswordB");
+
+        when(organizationService.findById(organizationA.getId())).thenReturn(organizationA);
+        when(userRepository.findUsernamesByOrganizationIdAndUsernameIn(eq(organizationA.getId()), anyCollection()))
+                .thenReturn(Lists.newArrayList())
+                .thenReturn(Lists.newArrayList("userB"));
+        when(userRepository.save(any(User.class))).then(invocation -> invocation.getArgument(0));
+
+        List<UserCreateResult> results = userService.createAll(Lists.newArrayList(userA, userB), organizationA.getId());
+
+        assertThat(results).extracting(UserCreateResult::isCreated).containsExactly(true, false);
+        verify(userRepository, times(1)).save(any(User.class));
+    }
+
+    @Test
+    public void passwordsAreHashedOutsideTransactions() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        List<Boolean> hashedInTransaction = new ArrayList<>();
+        doAnswer(invocation -> {
+            hashedInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordService).hash(any());
+        doAnswer(invocation -> {
+            hashedInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordService).hashAll(any());
+
+        when(organizationService.findById(organizationA.getId())).thenReturn(organizationA);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(createUser(2L, "userA", "hash")));
+        when(userRepository.saveAndFlush(any(User.class))).then(invocation -> invocation.getArgument(0));
+        when(userRepository.save(any(User.class))).then(invocation -> invocation.getArgument(0));
+
+        userService.create(createUser(null, "userA", "userpasswordA"), organizationA.getId());
+        userService.createAll(Lists.newArrayList(createUser(null, "userB", "userpasswordB")), organizationA.getId());
+        userService.update(createUser(2L, null, "userpasswordC"), organizationA.getId());
+
+        assertThat(hashedInTransaction).containsExactly(false, false, false);
     }
 
     @Test(expected = ObjectAlreadyExistException.class)
     public void createWithExistingUsername() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         User userA = createUser(null, "userA", "userpasswordA");
-        User existedUser = createUser(2L, "userA", "userpassword");
-        User createdUserA = createUser(3L, "userA", "userpasswordA");
 
         when(organizationService.findById(organizationA.getId())).thenReturn(organizationA);
-        when(userRepository.findByUsernameAndOrganizationId(userA.getUsername(), organizationA.getId())).thenReturn(existedUser);
-        when(userRepository.save(userA)).thenReturn(createdUserA);
+        when(userRepository.saveAndFlush(userA)).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         User createdUser = userService.create(userA, organizationA.getId());
     }
@@ -103,25 +203,52 @@ public class UserServiceImplTest {
         User updatedUserA = createUser(2L, "userABC", "userpasswordA");
 
         when(userRepository.findById(userA.getId())).thenReturn(Optional.ofNullable(userA));
-        when(userRepository.findByUsernameAndOrganizationId(userA.getUsername(), organizationA.getId())).thenReturn(null);
-        when(userRepository.save(userA)).thenReturn(updatedUserA);
+        when(userRepository.saveAndFlush(userA)).thenReturn(updatedUserA);
 
         User updateUser = userService.update(userA, organizationA.getId());
 
         assertThat(updateUser).isEqualTo(updatedUserA);
     }
 
+    @Test
+    public void updateKeepsPropertiesMissingFromRequest() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(2L, "userA", "userpasswordA");
+        User partialUserA = createUser(2L, "userA", null);
+
+        when(userRepository.findById(userA.getId())).thenReturn(Optional.of(userA));
+        when(userRepository.saveAndFlush(userA)).thenReturn(userA);
+
+        User updateUser = userService.update(partialUserA, organizationA.getId());
+
+        assertThat(updateUser).isSameAs(userA);
+        assertThat(updateUser.getPassword()).isEqualTo("userpasswordA");
+    }
+
+    @Test
+    public void updateWithStaleVersion() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(2L, "userA", "userpasswordA");
+        userA.setVersion(4L);
+        User updatedUserA = createUser(2L, "userABC", "userpasswordA");
+        updatedUserA.setVersion(3L);
+
+        when(userRepository.findById(userA.getId())).thenReturn(Optional.of(userA));
+
+        Assertions.assertThatThrownBy(() -> userService.update(updatedUserA, organizationA.getId()))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(userA.getUsername()).isEqualTo("userA");
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
     @Test(expected = CustomValidationException.class)
     public void updateWithExistingUsername() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         User userA = createUser(2L, "userA", "userpasswordA");
         User updatedUserA = createUser(2L, "userABC", "userpasswordA");
-        User existedUserWithSuchUsername = createUser(3L, "userABC", "userpasswordA");
 
         when(userRepository.findById(userA.getId())).thenReturn(Optional.ofNullable(userA));
-        when(userRepository.findByUsernameAndOrganizationId(updatedUserA.getUsername(), organizationA.getId()))
-                .thenReturn(existedUserWithSuchUsername);
-        when(userRepository.save(userA)).thenReturn(updatedUserA);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(User.USERNAME_CONSTRAINT));
 
         User updateUser = userService.update(updatedUserA, organizationA.getId());
     }
@@ -136,20 +263,80 @@ public class UserServiceImplTest {
         User updateUser = userService.update(userA, organizationA.getId());
     }
 
-    @Test(expected = ObjectNotFoundException.class)
+    @Test
+    public void authenticateRehashesOutdatedCost() throws Exception {
+        String outdatedHash = new BCryptPasswordEncoder(4).encode("userpasswordA");
+        UserCredentials credentials = credentials(2L, outdatedHash);
+
+        when(userRepository.findByUsernameAndOrganizationId("userA", 1L)).thenReturn(credentials);
+
+        assertThat(userService.authenticate("userA", "userpasswordA", 1L)).isEqualTo(2L);
+        verify(userRepository).updatePasswordByIdAndPassword(eq(2L), eq(outdatedHash), startsWith("$2a$10$"));
+    }
+
+    @Test
+    public void authenticateChecksPasswordOutsideTransactions() throws Exception {
+        String outdatedHash = new BCryptPasswordEncoder(4).encode("userpasswordA");
+        List<Boolean> inTransaction = new ArrayList<>();
+        doAnswer(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return invocation.callRealMethod();
+        }).when(passwordService).matches(any(), any());
+
+        when(userRepository.findByUsernameAndOrganizationId("userA", 1L)).thenReturn(credentials(2L, outdatedHash));
+        when(userRepository.updatePasswordByIdAndPassword(eq(2L), eq(outdatedHash), any())).then(invocation -> {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            return 1;
+        });
+
+        assertThat(userService.authenticate("userA", "userpasswordA", 1L)).isEqualTo(2L);
+        // matches, then the rehash update
+        assertThat(inTransaction).containsExactly(false, true);
+    }
+
+    @Test
+    public void authenticateWithWrongPassword() throws Exception {
+        UserCredentials credentials = credentials(2L, passwordService.hash("userpasswordA"));
+
+        when(userRepository.findByUsernameAndOrganizationId("userA", 1L)).thenReturn(credentials);
+
+        Assertions.assertThatThrownBy(() -> userService.authenticate("userA", "userpasswordB", 1L))
+                .isInstanceOf(AuthenticationFailedException.class);
+        verify(userRepository, never()).updatePasswordByIdAndPassword(any(), any(), any());
+    }
+
+    @Test
+    public void authenticateRemembersUnknownUsername() throws Exception {
+        when(userRepository.findByUsernameAndOrganizationId("unknownA", 1L)).thenReturn(null);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThatThrownBy(() -> userService.authenticate("unknownA", "userpasswordA", 1L))
+                    .isInstanceOf(AuthenticationFailedException.class);
+        }
+        verify(userRepository, times(1)).findByUsernameAndOrganizationId("unknownA", 1L);
+    }
+
+    @Test
     public void delete() throws Exception {
         Organization organizationA = createOrganization(1L, "Organization A");
         User userA = createUser(2L, "userA", "userpasswordA");
 
-        doNothing().when(userRepository).deleteById(userA.getId());
-        when(userRepository.findByIdAndOrganizationId(userA.getId(), organizationA.getId()))
-                .thenThrow(new ObjectNotFoundException("Organization", organizationA.getId()));
+        when(userRepository.deleteByIdAndOrganizationId(userA.getId(), organizationA.getId())).thenReturn(1);
+
+        userService.delete(userA.getId(), organizationA.getId());
+
+        verify(userRepository).deleteByIdAndOrganizationId(userA.getId(), organizationA.getId());
+        verify(userRepository, never()).findByIdAndOrganizationId(any(), any());
+    }
 
-        userService.delete(organizationA.getId(), organizationA.getId());
+    @Test(expected = ObjectNotFoundException.class)
+    public void deleteNotExisted() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(2L, "userA", "userpasswordA");
 
-        User userById = userService.find(userA.getId(), organizationA.getId());
+        when(userRepository.deleteByIdAndOrganizationId(userA.getId(), organizationA.getId())).thenReturn(0);
 
-        Assertions.assertThat(userById).isNull();
+        userService.delete(userA.getId(), organizationA.getId());
     }
 
 
@@ -161,13 +348,42 @@ public class UserServiceImplTest {
         User userB = createUser(2L, "userB", "userpasswordB");
         userB.setOrganization(organizationA);
 
-        when(userRepository.findByOrganizationId(organizationA.getId())).thenReturn(Lists.newArrayList(userA, userB));
+        when(userRepository.findByOrganizationIdAndIdGreaterThanOrderByIdAsc(organizationA.getId(), 0L, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(Lists.newArrayList(userA, userB), PageRequest.of(0, 10), false));
 
-        List<User> usersByOrgId = userService.findAllByOrgId(organizationA.getId());
+        List<User> usersByOrgId = userService.findAllByOrgId(organizationA.getId(), 0L, 10).getContent();
 
         Assertions.assertThat(usersByOrgId.size()).isEqualTo(2);
         Assertions.assertThat(usersByOrgId.get(0)).isEqualTo(userA);
         Assertions.assertThat(usersByOrgId.get(1)).isEqualTo(userB);
 
     }
+
+    @Test
+    public void exportAllByOrgId() throws Exception {
+        Organization organizationA = createOrganization(1L, "Organization A");
+        User userA = createUser(1L, "userA", "userpasswordA");
+        User userB = createUser(2L, "userB", "userpasswordB");
+
+        when(userRepository.streamByOrganizationId(organizationA.getId())).thenReturn(Stream.of(userA, userB));
+
+        List<User> exported = new ArrayList<>();
+        userService.exportAllByOrgId(organizationA.getId(), exported::add);
+
+        Assertions.assertThat(exported).containsExactly(userA, userB);
+    }
+
+    private static UserCredentials credentials(Long id, String password) {
+        return new UserCredentials() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getPassword() {
+                return password;
+            }
+        };
+    }
 }
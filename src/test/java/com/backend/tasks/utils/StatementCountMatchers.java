@@ -0,0 +1,16 @@
+package com.backend.tasks.utils;
+
+import com.backend.tasks.jdbc.StatementCountingFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+/**
+ * Pins the number of JDBC statements a request executes, as reported by {@link StatementCountingFilter}.
+ * MockMvc must be built with the filter, as BaseControllerTest does.
+ */
+public class StatementCountMatchers {
+    public static ResultMatcher statements(long expected) {
+        return header().longValue(StatementCountingFilter.STATEMENTS_HEADER, expected);
+    }
+}
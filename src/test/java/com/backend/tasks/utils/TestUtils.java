@@ -5,6 +5,10 @@ import com.backend.tasks.dto.UserCreateDto;
 import com.backend.tasks.dto.UserUpdateDto;
 import com.backend.tasks.model.Organization;
 import com.backend.tasks.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
 
 public class TestUtils {
     public static UserCreateDto createUserCreateDto(String username, String password) {
@@ -14,6 +18,15 @@ public class TestUtils {
         return userCreateDto;
     }
 
+    /**
+     * The exception a repository throws when the named unique constraint is violated, as reported by H2.
+     */
+    public static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        String indexName = constraintName.toUpperCase() + "_INDEX_1";
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("Unique index or primary key violation", "23505"), indexName));
+    }
+
     public static Organization createOrganization(Long id, String name) {
         Organization organizationA = new Organization();
         organizationA.setId(id);
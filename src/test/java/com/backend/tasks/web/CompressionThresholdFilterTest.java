@@ -0,0 +1,97 @@
+package com.backend.tasks.web;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompressionThresholdFilterTest {
+
+    @Test
+    public void smallBodyIsHeldBackAndGetsContentLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] committedAfterFlush = new boolean[1];
+
+        perform(response, resp -> {
+            OutputStream body = resp.getOutputStream();
+            body.write(bytes(10));
+            body.flush();
+            resp.flushBuffer();
+            committedAfterFlush[0] = resp.isCommitted();
+        });
+
+        assertThat(committedAfterFlush[0]).isFalse();
+        assertThat(response.getContentLength()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).hasSize(10);
+    }
+
+    @Test
+    public void bodyAboveThresholdStreamsWithoutContentLength() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] committedAfterFlush = new boolean[1];
+
+        perform(response, resp -> {
+            OutputStream body = resp.getOutputStream();
+            body.write(bytes(60));
+            body.write(bytes(60));
+            body.flush();
+            committedAfterFlush[0] = resp.isCommitted();
+        });
+
+        assertThat(committedAfterFlush[0]).isTrue();
+        assertThat(response.getHeader("Content-Length")).isNull();
+        assertThat(response.getContentAsByteArray()).hasSize(120);
+    }
+
+    @Test
+    public void writerIsHeldBackToo() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        perform(response, resp -> resp.getWriter().write("body"));
+
+        assertThat(response.getContentLength()).isEqualTo(4);
+        assertThat(response.getContentAsString()).isEqualTo("body");
+    }
+
+    @Test
+    public void heldBodyIsDroppedOnError() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        perform(response, resp -> {
+            resp.getOutputStream().write(bytes(10));
+            resp.sendError(500);
+        });
+
+        assertThat(response.getStatus()).isEqualTo(500);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private static void perform(MockHttpServletResponse response, Handler handler) throws Exception {
+        new CompressionThresholdFilter(100).doFilter(new MockHttpServletRequest("GET", "/orgs"), response,
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                        handler.handle(resp);
+                    }
+                }));
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 'x');
+        return bytes;
+    }
+
+    private interface Handler {
+        void handle(HttpServletResponse response) throws IOException;
+    }
+}